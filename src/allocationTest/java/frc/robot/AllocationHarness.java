@@ -0,0 +1,151 @@
+package frc.robot;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.simulation.DriverStationSim;
+import edu.wpi.first.wpilibj.simulation.SimHooks;
+import frc.robot.util.auto.AutoRegistry;
+import frc.robot.util.auto.TrajectoryCache;
+import frc.robot.util.profiler.AllocationMeter;
+import frc.robot.util.profiler.LoopProfiler;
+import frc.robot.util.profiler.ProfilerStage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+/**
+ * Runs the robot loop headless against the simulated HAL, and fails if the main loop thread allocates more
+ * than its budget. Each mode (disabled, autonomous and teleop) is warmed up and then run for a number of
+ * cycles, while the {@link LoopProfiler} attributes the bytes allocated to every subsystem's periodic() and
+ * every command. Work on other threads (the odometry and sensor threads) is not counted.
+ * <p>
+ * Budgets are the mean bytes allocated per cycle, and are read from a properties file keyed by stage name.
+ * {@code loop} is the budget of the whole loop, and {@code default} applies to any stage without its own.
+ * <p>
+ * Usage: {@code AllocationHarness <cycles> <budget file> [--record]}. With {@code --record}, the measured
+ * values are written to the budget file instead of being checked, to ratchet the budgets after a cleanup.
+ */
+public final class AllocationHarness {
+    private static final double PERIOD = 0.02;
+    private static final String LOOP = "loop";
+    private static final String DEFAULT = "default";
+
+    private enum Mode { DISABLED, AUTONOMOUS, TELEOP }
+
+    // The highest mean bytes per cycle of every stage, over every mode.
+    private static final Map<String, Double> measured = new TreeMap<>();
+
+    private AllocationHarness() {}
+
+    public static void main(String... args) throws Exception {
+        int cycles = Integer.parseInt(args[0]);
+        Path budgetFile = Paths.get(args[1]);
+        boolean record = args.length > 2 && args[2].equals("--record");
+
+        HAL.initialize(500, 0);
+        DriverStation.silenceJoystickConnectionWarning(true);
+        SimHooks.pauseTiming();
+        AllocationMeter.enable();
+
+        Robot robot = new Robot();
+        robot.robotInit();
+        TrajectoryCache.getInstance().awaitLoaded();
+        AutoRegistry.getInstance().buildAll();
+
+        for (Mode mode : Mode.values()) {
+            run(robot, mode, cycles);
+        }
+
+        if (record) {
+            recordBudgets(budgetFile);
+            System.exit(0);
+        }
+        System.exit(checkBudgets(budgetFile) ? 0 : 1);
+    }
+
+    private static void run(Robot robot, Mode mode, int cycles) {
+        DriverStationSim.setEnabled(mode != Mode.DISABLED);
+        DriverStationSim.setAutonomous(mode == Mode.AUTONOMOUS);
+        DriverStationSim.setTest(false);
+        DriverStationSim.notifyNewData();
+
+        // Warm up, so one-time allocations (class loading, first command runs) are not counted.
+        int warmup = Math.max(cycles / 5, 50);
+        for (int i = 0; i < warmup; i++) {
+            cycle(robot);
+        }
+
+        LoopProfiler profiler = LoopProfiler.getInstance();
+        for (int i = 0; i < profiler.getStageCount(); i++) {
+            profiler.getStage(i).resetAllocations();
+        }
+
+        long loopBytes = 0;
+        for (int i = 0; i < cycles; i++) {
+            loopBytes += cycle(robot);
+        }
+
+        System.out.printf("%s (%d cycles)%n", mode, cycles);
+        report(LOOP, (double) loopBytes / cycles);
+        for (int i = 0; i < profiler.getStageCount(); i++) {
+            ProfilerStage stage = profiler.getStage(i);
+            if (stage.getLoopsRan() == 0) continue;
+            report(stage.getName(), (double) stage.getTotalBytes() / stage.getLoopsRan());
+        }
+    }
+
+    /** @return The bytes the main thread allocated during one loop. */
+    private static long cycle(Robot robot) {
+        SimHooks.stepTiming(PERIOD);
+        long start = AllocationMeter.currentThreadBytes();
+        robot.loopFunc();
+        return AllocationMeter.currentThreadBytes() - start;
+    }
+
+    private static void report(String name, double bytesPerCycle) {
+        System.out.printf("  %-48s %10.1f B/cycle%n", name, bytesPerCycle);
+        measured.merge(name, bytesPerCycle, Math::max);
+    }
+
+    private static boolean checkBudgets(Path budgetFile) throws IOException {
+        Properties budgets = new Properties();
+        try (InputStream input = Files.newInputStream(budgetFile)) {
+            budgets.load(input);
+        }
+        double defaultBudget = Double.parseDouble(budgets.getProperty(DEFAULT, "0"));
+
+        boolean passed = true;
+        for (Map.Entry<String, Double> entry : measured.entrySet()) {
+            String value = budgets.getProperty(entry.getKey());
+            double budget = value != null ? Double.parseDouble(value) : defaultBudget;
+            if (entry.getValue() > budget) {
+                System.err.printf("Allocation budget exceeded: %s allocates %.1f B/cycle, budget is %.0f%n",
+                        entry.getKey(), entry.getValue(), budget);
+                passed = false;
+            }
+        }
+        return passed;
+    }
+
+    private static void recordBudgets(Path budgetFile) throws IOException {
+        Properties budgets = new Properties();
+        budgets.setProperty(DEFAULT, "0");
+        for (Map.Entry<String, Double> entry : measured.entrySet()) {
+            // Rounded up to a whole object header, so tiny variations between runs don't fail the build.
+            long bytes = (long) Math.ceil(entry.getValue() / 16) * 16;
+            if (bytes > 0 || entry.getKey().equals(LOOP)) budgets.setProperty(entry.getKey(), Long.toString(bytes));
+        }
+
+        try (OutputStream output = Files.newOutputStream(budgetFile)) {
+            budgets.store(output, "Mean bytes allocated per loop by the main thread, checked by ./gradlew allocationTest");
+        }
+        System.out.println("Recorded allocation budgets to " + budgetFile);
+    }
+}
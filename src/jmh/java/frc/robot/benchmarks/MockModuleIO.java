@@ -0,0 +1,27 @@
+package frc.robot.benchmarks;
+
+import frc.robot.util.swerve.SwerveModuleIO;
+
+/**
+ * A {@link SwerveModuleIO} which never touches hardware or the HAL, so benchmarks measure only the
+ * cost of the swerve code itself. Readings drift slightly on every call so the JIT cannot fold them.
+ */
+public class MockModuleIO implements SwerveModuleIO {
+    private double drivePower, turnPower, targetRPM;
+    private double position, absolute, turnPosition;
+
+    @Override public void setDrivePower(double power) { this.drivePower = power; }
+    @Override public void setDriveVelocity(double motorRPM) { this.targetRPM = motorRPM; }
+    @Override public void setTurnPower(double power) { this.turnPower = power; }
+    @Override public void setTurnPosition(double radians) { this.turnPosition = radians; }
+    @Override public void seedTurnPosition(double radians) { this.turnPosition = radians; }
+
+    @Override public double getDrivePower() { return drivePower; }
+    @Override public double getTurnPower() { return turnPower; }
+    @Override public double getDrivePosition() { return position += 0.01; }
+    @Override public double getDriveVelocity() { return targetRPM; }
+    @Override public double getAbsolutePosition() { return absolute = (absolute + 0.001) % 1; }
+    @Override public double getTurnPosition() { return turnPosition += 0.0001; }
+
+    @Override public void resetDriveEncoder() { position = 0; }
+}
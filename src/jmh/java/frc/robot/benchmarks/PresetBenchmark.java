@@ -0,0 +1,35 @@
+package frc.robot.benchmarks;
+
+import frc.robot.util.pid.PresetMapGroup;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+import static frc.robot.Constants.ClimberPresets.*;
+
+/**
+ * Measures the preset lookups each climber {@link frc.robot.util.pid.SparkMaxPIDSubsystem} does every loop.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PresetBenchmark {
+    private PresetMapGroup<Double> group;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        group = new PresetMapGroup<>();
+        group.addPreset(ROTATION_NAME, ROTATION_PRESETS);
+        group.addPreset(EXTENSION_NAME, EXTENSION_PRESETS);
+        group.addPreset(WRIST_NAME, WRIST_PRESETS);
+        group.setPreset(MID_CONE_NAME);
+    }
+
+    @Benchmark
+    public Double getCurrentPreset() {
+        return group.getCurrentPreset(EXTENSION_NAME);
+    }
+}
@@ -0,0 +1,47 @@
+package frc.robot.benchmarks;
+
+import com.revrobotics.CANSparkMax;
+import edu.wpi.first.hal.HAL;
+import frc.robot.util.loop.LoopPhase;
+import frc.robot.util.loop.PhasedLoop;
+import frc.robot.util.pid.PresetMap;
+import frc.robot.util.pid.SparkMaxPIDSubsystem;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static com.revrobotics.CANSparkMaxLowLevel.MotorType.kBrushless;
+
+/**
+ * Measures the control and actuate hooks of a {@link SparkMaxPIDSubsystem} with the {@link CANSparkMax}
+ * running against the simulated HAL, so no CAN bus is needed. Each fork only creates this one subsystem, so
+ * the {@link PhasedLoop} phases run nothing else.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SparkMaxPIDBenchmark {
+    private SparkMaxPIDSubsystem subsystem;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        HAL.initialize(500, 0);
+
+        PresetMap<Double> presets = new PresetMap<>(Map.of("TARGET", 25.0));
+        presets.setPreset("TARGET");
+
+        subsystem = new SparkMaxPIDSubsystem("Benchmark", new CANSparkMax(60, kBrushless), 0.01, 0, 0);
+        subsystem.setPresetMap(presets, presets::getCurrentPreset);
+    }
+
+    @Benchmark
+    public void controlAndActuate() {
+        PhasedLoop loop = PhasedLoop.getInstance();
+        loop.runHooks(LoopPhase.CONTROL);
+        loop.runHooks(LoopPhase.ACTUATE);
+    }
+}
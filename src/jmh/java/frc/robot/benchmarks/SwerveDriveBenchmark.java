@@ -0,0 +1,71 @@
+package frc.robot.benchmarks;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
+import frc.robot.util.swerve.SwerveChassis;
+import frc.robot.util.swerve.SwerveModule;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+import static frc.robot.Constants.Chassis.MODULE_CONFIG;
+import static frc.robot.Constants.Chassis.SIDE_LENGTH;
+
+/**
+ * Measures the swerve drive path which runs every 20 ms loop, using {@link MockModuleIO} backends.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SwerveDriveBenchmark {
+    private SwerveChassis chassis;
+    private SwerveModule module;
+    private ChassisSpeeds speeds;
+    private SwerveModuleState state;
+    private double step;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        HAL.initialize(500, 0);
+
+        chassis = new SwerveChassis(
+                new SwerveModule("FL", new MockModuleIO(), MODULE_CONFIG, new Rotation2d(), 1),
+                new SwerveModule("FR", new MockModuleIO(), MODULE_CONFIG, new Rotation2d(), 1),
+                new SwerveModule("BL", new MockModuleIO(), MODULE_CONFIG, new Rotation2d(), 1),
+                new SwerveModule("BR", new MockModuleIO(), MODULE_CONFIG, new Rotation2d(), 1),
+                SIDE_LENGTH
+        );
+        module = chassis.getFrontLeft();
+        speeds = new ChassisSpeeds(1.5, 0.5, 1);
+        state = new SwerveModuleState(2, Rotation2d.fromDegrees(135));
+    }
+
+    @Benchmark
+    public void chassisDrive() {
+        step += 0.001;
+        chassis.drive(1.5, 0.5 + step % 1, 1);
+        chassis.flush();
+    }
+
+    @Benchmark
+    public void chassisDriveChassisSpeeds() {
+        chassis.drive(speeds);
+        chassis.flush();
+    }
+
+    @Benchmark
+    public void moduleSetStatePrimitive() {
+        step += 0.001;
+        module.setState(2, step % Math.PI);
+    }
+
+    @Benchmark
+    public void moduleSetState() {
+        module.setState(state);
+    }
+}
@@ -0,0 +1,59 @@
+package frc.robot.benchmarks;
+
+import frc.robot.util.math.*;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the unit conversions used by the drive code. These do not need the HAL.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UnitConversionBenchmark {
+    private final GearRatio ratio = GearRatio.fromRatio(6.86);
+    private final Distance wheel = Distance.fromInches(4);
+    private final Velocity velocity = Velocity.fromMPS(3.2);
+
+    // Read from fields (not constants) so the units are not folded away.
+    private DistanceUnit distanceFrom = DistanceUnit.INCHES;
+    private DistanceUnit distanceTo = DistanceUnit.METERS;
+    private VelocityUnit velocityFrom = VelocityUnit.MPH;
+    private VelocityUnit velocityTo = VelocityUnit.MPS;
+    private AngularVelocityUnit angularFrom = AngularVelocityUnit.RPM;
+    private AngularVelocityUnit angularTo = AngularVelocityUnit.RAD_S;
+    private double value = 4.2;
+
+    @Benchmark
+    public Velocity gearRatioWheelVelocity() {
+        return ratio.getWheelVelocity(5200, wheel);
+    }
+
+    @Benchmark
+    public double gearRatioMotorRPM() {
+        return ratio.getMotorRPM(velocity, wheel);
+    }
+
+    @Benchmark
+    public void distanceConvert(Blackhole bh) {
+        bh.consume(Distance.convert(value, distanceFrom, distanceTo));
+        bh.consume(Distance.convert(value, distanceTo, distanceFrom));
+    }
+
+    @Benchmark
+    public void velocityConvert(Blackhole bh) {
+        bh.consume(Velocity.convert(value, velocityFrom, velocityTo));
+        bh.consume(Velocity.convert(value, velocityTo, velocityFrom));
+    }
+
+    @Benchmark
+    public void angularVelocityConvert(Blackhole bh) {
+        bh.consume(AngularVelocity.convert(value, angularFrom, angularTo));
+        bh.consume(AngularVelocity.convert(value, angularTo, angularFrom));
+    }
+}
@@ -1,19 +1,23 @@
 package frc.robot;
 
 import com.kauailabs.navx.frc.AHRS;
+import com.pathplanner.lib.PathConstraints;
+import com.revrobotics.CANSparkMax.IdleMode;
 import com.revrobotics.CANSparkMaxLowLevel.MotorType;
 
 import edu.wpi.first.math.controller.PIDController;
-import edu.wpi.first.math.controller.ProfiledPIDController;
 import edu.wpi.first.math.geometry.Rotation2d;
-import edu.wpi.first.math.trajectory.TrapezoidProfile;
 import frc.robot.util.math.*;
+import frc.robot.util.motor.SparkMaxConfig;
+import frc.robot.util.motor.StatusFramePolicy;
 import frc.robot.util.pid.PresetMap;
 import frc.robot.util.pid.TunablePIDController;
 import frc.robot.util.swerve.SwerveChassis;
 import frc.robot.util.swerve.SwerveModule;
 import frc.robot.util.swerve.SwerveModuleConfig;
 
+import java.util.function.Supplier;
+
 import static frc.robot.util.math.DistanceUnit.INCHES;
 import static java.util.Map.entry;
 import static java.util.Map.ofEntries;
@@ -21,12 +25,77 @@ import static java.util.Map.ofEntries;
 public class Constants {
     public static class Global {
         public static boolean TEST_MODE = true;
+
+        // 100 Hz, every encoder and the gyro are read once per period into the SensorSnapshot.
+        public static final double SENSOR_PERIOD = 0.01;
+
+        // Worker threads used by the Bootstrap to configure independent devices in parallel.
+        public static final int BOOT_THREADS = 4;
+    }
+
+    public static class MotorOutput {
+        // Changes in motor power smaller than this are not sent over CAN.
+        public static final double OUTPUT_THRESHOLD = 0.001;
+        // An unchanged output is still resent at least this often (seconds).
+        public static final double OUTPUT_KEEP_ALIVE = 0.1;
+        // Changes in drive velocity (motor RPM) smaller than this are not sent over CAN.
+        public static final double DRIVE_VELOCITY_THRESHOLD = 1;
+        // Changes in steering position (module radians) smaller than this are not sent over CAN.
+        public static final double TURN_POSITION_THRESHOLD = 0.002;
+    }
+
+    public static class MotorConfigs {
+        public static final SparkMaxConfig MECHANISM_CONFIG = new SparkMaxConfig()
+                .setSmartCurrentLimit(40)
+                .setIdleMode(IdleMode.kBrake)
+                .setVoltageCompensation(12)
+                .setStatusFramePolicy(StatusFramePolicy.MECHANISM);
+
+        public static final SparkMaxConfig VACUUM_CONFIG = new SparkMaxConfig()
+                .setSmartCurrentLimit(30)
+                .setIdleMode(IdleMode.kCoast)
+                .setVoltageCompensation(12)
+                .setStatusFramePolicy(StatusFramePolicy.OUTPUT_ONLY);
+    }
+
+    public static class TelemetryValues {
+        // Debug values only read by a person are published every 5 loops (10 Hz).
+        public static final int DEBUG_DECIMATION = 5;
+        // The CAN bus is sampled every 100 ms and its averages are published every 10 samples (1 s).
+        public static final double CAN_MONITOR_PERIOD = 0.1;
+        public static final int CAN_MONITOR_WINDOW = 10;
+    }
+
+    public static class Logging {
+        // The amount of records the DataRecorder ring can hold before dropping new ones (~1 s at full rate).
+        public static final int LOG_BUFFER_SIZE = 1024;
+        public static final int LOG_MAX_WIDTH = 32;
+        public static final int LOG_MAX_CHANNELS = 32;
+        // How often the flush thread drains the ring into the log (seconds).
+        public static final double LOG_FLUSH_PERIOD = 0.05;
+        // Reading every PDH channel takes ~26 HAL calls, so the power log is only written every 5 loops (10 Hz).
+        public static final int POWER_LOG_DECIMATION = 5;
+    }
+
+    public static class Profiler {
+        // Latency histograms are 0.1 ms buckets up to 25 ms, anything longer goes into an overflow bucket.
+        public static final double HISTOGRAM_BUCKET_MS = 0.1;
+        public static final int HISTOGRAM_BUCKETS = 250;
+        public static final int PROFILER_MAX_STAGES = 64;
+        // The histograms are published and cleared every 50 loops (1 s).
+        public static final int PROFILER_PUBLISH_LOOPS = 50;
     }
 
     public static class Control {
         public static final int LEFT_STICK_ID = 0;
         public static final int RIGHT_STICK_ID = 1;
         public static final int XBOX_CONTROLLER_ID = 2;
+
+        // Used by the lookup table drive modes. The slew rates are the change per second of a -1 to 1 input.
+        public static final double DRIVE_DEADBAND = 0.1;
+        public static final double DRIVE_EXPO = 0.7;
+        public static final double TRANSLATION_SLEW_RATE = 3;
+        public static final double ROTATION_SLEW_RATE = 4;
     }
 
     public static class Chassis {
@@ -36,17 +105,67 @@ public class Constants {
         public static final Distance SIDE_LENGTH = Distance.fromInches(26);
         public static final Velocity MAX_VELOCITY = Velocity.fromMPS(4.4);
 
+        // Limits used by the SwerveSetpointGenerator, in m/s^2, rad/s^2 and rad/s.
+        public static final double MAX_ACCELERATION = 6;
+        public static final double MAX_ANGULAR_ACCELERATION = 4 * Math.PI;
+        public static final double MAX_MODULE_ACCELERATION = 8;
+        public static final double MAX_STEER_RATE = 8 * Math.PI;
+        // The setpoint generator restarts from the measured module states after a gap this long (seconds).
+        public static final double SETPOINT_RESET_TIME = 0.1;
+
+        // Run the steering position loop on the SparkMax (1 kHz) instead of a PIDController on the RIO.
+        public static final boolean ONBOARD_STEERING = true;
+        // Motor power per radian of steering error for the onboard position loop.
+        public static final double TURN_POSITION_P = 0.5;
+        // The integrated turn encoder is re-seeded from the absolute encoder if they disagree by more than
+        // this (radians) for this many loops in a row.
+        public static final double TURN_RESEED_TOLERANCE = Math.toRadians(3);
+        public static final int TURN_RESEED_LOOPS = 25;
+
+        // The time between reading the gyro and the modules acting on a drive command (seconds).
+        public static final double HEADING_LATENCY = 0.015;
+
+        // The navX sends updates to the SwerveAHRS callback at this rate (Hz), the most it supports over SPI.
+        public static final int GYRO_UPDATE_RATE = 200;
+
+        // Driving is disabled until the navX finishes calibrating, or this long after boot (seconds) if it never does.
+        public static final double GYRO_CALIBRATION_TIMEOUT = 20;
+
+        // 200 Hz, the odometry samples the modules and gyro on its own thread at this period.
+        public static final double ODOMETRY_PERIOD = 0.005;
+
         public static final PIDController DRIVE_CONTROLLER = new PIDController(0.01, 0, 0);
         public static final PIDController TURN_CONTROLLER = new PIDController(0.02, 0, 0);
 
+        // kFF is 1 / the free speed of a NEO (5676 RPM), so the velocity loop only has to correct the error.
+        public static final SparkMaxConfig DRIVE_MOTOR_CONFIG = new SparkMaxConfig()
+                .setPID(0.0001, 0, 0, 1.0 / 5676)
+                .setSmartCurrentLimit(40)
+                .setIdleMode(IdleMode.kBrake)
+                .setVoltageCompensation(12)
+                .setStatusFramePolicy(StatusFramePolicy.DRIVE);
+
+        // The integrated encoder is scaled to module radians, and wraps at +/- pi.
+        public static final SparkMaxConfig TURN_MOTOR_CONFIG = new SparkMaxConfig()
+                .setPID(TURN_POSITION_P, 0, 0, 0)
+                .setSmartCurrentLimit(20)
+                .setIdleMode(IdleMode.kBrake)
+                .setVoltageCompensation(12)
+                .setPositionConversionFactor(TURN_RATIO.motorRotationsToRadians(1))
+                .setVelocityConversionFactor(TURN_RATIO.motorRotationsToRadians(1) / 60)
+                .setPIDWrapping(-Math.PI, Math.PI)
+                .setStatusFramePolicy(StatusFramePolicy.TURN);
+
         public static final SwerveModuleConfig MODULE_CONFIG = new SwerveModuleConfig(
                 MAX_VELOCITY,
                 DRIVE_RATIO,
                 TURN_RATIO,
                 WHEEL_SIZE
-        );
+        ).setMaxDriveAcceleration(MAX_MODULE_ACCELERATION).setMaxSteerRate(MAX_STEER_RATE);
 
-        public static final SwerveModule FL_MODULE = new SwerveModule(
+        // The modules are only created by the Bootstrap in robotInit, not while this class is initialized.
+        // The offsets are the module angle when its absolute encoder (on the module output) reads zero.
+        public static final Supplier<SwerveModule> FL_MODULE = () -> new SwerveModule(
                 "FL",
                 2,
                 1,
@@ -56,7 +175,7 @@ public class Constants {
                 1
         );
 
-        public static final SwerveModule FR_MODULE = new SwerveModule(
+        public static final Supplier<SwerveModule> FR_MODULE = () -> new SwerveModule(
                 "FR",
                 4,
                 3,
@@ -66,7 +185,7 @@ public class Constants {
                 1
         );
 
-        public static final SwerveModule BL_MODULE = new SwerveModule(
+        public static final Supplier<SwerveModule> BL_MODULE = () -> new SwerveModule(
                 "BL",
                 6,
                 5,
@@ -76,7 +195,7 @@ public class Constants {
                 1
         );
 
-        public static final SwerveModule BR_MODULE = new SwerveModule(
+        public static final Supplier<SwerveModule> BR_MODULE = () -> new SwerveModule(
                 "BR",
                 8,
                 7,
@@ -179,12 +298,18 @@ public class Constants {
         public static final PresetMap<String> a = new PresetMap<>();
     }
 
+    // Kept apart from AutoValues, since the TrajectoryCompiler reads it at build time without any hardware.
+    public static class Trajectories {
+        // Every PathPlanner path is time-parameterized with these limits (m/s, m/s^2).
+        public static final PathConstraints PATH_CONSTRAINTS = new PathConstraints(2, 1.5);
+    }
+
     public static class AutoValues {
         // fancy calculus type stuff, not sure what to do with it but play with the numbers ;)
         public static final PIDController X_CONTROLLER = new PIDController(0.1, 0, 0);
         public static final PIDController Y_CONTROLLER = new PIDController(0.1, 0, 0);
-        public static final ProfiledPIDController HEADING_CONTROLLER = new ProfiledPIDController(0.01, 0, 0,
-                new TrapezoidProfile.Constraints(0.5, 0.5));
+        // PathPlanner follows the path's own heading profile, so this is a plain PID on the heading (rad).
+        public static final PIDController HEADING_CONTROLLER = new PIDController(0.01, 0, 0);
 
         public static final TunablePIDController PITCH_CONTROLLER = new TunablePIDController("Charge Pitch",
                 0.0081, 0.0, 0.0);
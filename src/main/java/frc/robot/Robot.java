@@ -6,21 +6,43 @@
 package frc.robot;
 
 import edu.wpi.first.wpilibj.PowerDistribution;
+import edu.wpi.first.wpilibj.SPI;
 import edu.wpi.first.wpilibj.TimedRobot;
 import edu.wpi.first.wpilibj.smartdashboard.SendableChooser;
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.CommandScheduler;
+import frc.robot.commands.auto.AutoRoutines;
 import frc.robot.subsystems.climber.ClimberArmSubsystem;
 import frc.robot.subsystems.climber.ClimberWristSubsystem;
 import frc.robot.subsystems.swerve.SwerveDriveSubsystem;
 import frc.robot.subsystems.vacuum.VacuumSubsystem;
+import frc.robot.util.auto.AutoRegistry;
+import frc.robot.util.auto.TrajectoryCache;
+import frc.robot.util.boot.Bootstrap;
+import frc.robot.util.joystick.HIDSnapshot;
+import frc.robot.util.log.DataRecorder;
+import frc.robot.util.log.LogChannel;
+import frc.robot.util.loop.LoopPhase;
+import frc.robot.util.loop.PhasedLoop;
+import frc.robot.util.motor.CoalescingMotorController;
 import frc.robot.util.pid.PresetMapGroup;
+import frc.robot.util.profiler.LoopProfiler;
+import frc.robot.util.profiler.ProfilerStage;
+import frc.robot.util.sensor.SensorSnapshot;
+import frc.robot.util.swerve.SwerveAHRS;
+import frc.robot.util.swerve.SwerveModule;
+import frc.robot.util.telemetry.CANBusMonitor;
 
-import java.lang.management.ClassLoadingMXBean;
+import java.util.concurrent.Future;
 
 import static frc.robot.Constants.Chassis.*;
 import static frc.robot.Constants.ClimberPresets.*;
-import static frc.robot.util.math.ExtendedMath.deadband;
+import static frc.robot.Constants.Global.BOOT_THREADS;
+import static frc.robot.Constants.Global.SENSOR_PERIOD;
+import static frc.robot.Constants.Logging.POWER_LOG_DECIMATION;
+import static frc.robot.Constants.TelemetryValues.*;
+import static frc.robot.Constants.Trajectories.PATH_CONSTRAINTS;
 
 /**
  * The VM is configured to automatically run this class, and to call the methods corresponding to
@@ -40,27 +62,81 @@ public class Robot extends TimedRobot {
     public static boolean pidControlEnabled = true; //true;
     public static boolean limitSwitchBypass = false; //false;
 
-    public static SendableChooser<Integer> autoMode = new SendableChooser<>();
+    public static SendableChooser<String> autoMode = new SendableChooser<>();
     public static PresetMapGroup<Double> CLIMBER_PRESET_GROUP = new PresetMapGroup<>();
 
+    // [voltage, total current, channel 0 current, ..., channel N current]
+    private LogChannel powerLog;
+    private ProfilerStage powerLogStage;
+    private int powerLogLoops = 0;
+
     /**
      * This method is run when the robot is first started up and should be used for any
      * initialization code.
      */
     @Override
     public void robotInit() {
+        DataRecorder.getInstance().start();
+        // Parse every path while the rest of the robot starts up.
+        TrajectoryCache.getInstance().start(PATH_CONSTRAINTS);
+
+        Bootstrap boot = new Bootstrap(BOOT_THREADS);
+
+        // The swerve modules and the navX don't touch the CommandScheduler, so they are configured on worker
+        // threads while the main thread creates the subsystems. The navX finishes calibrating on its own.
+        Future<SwerveModule> fl = boot.submit("Swerve FL", FL_MODULE::get);
+        Future<SwerveModule> fr = boot.submit("Swerve FR", FR_MODULE::get);
+        Future<SwerveModule> bl = boot.submit("Swerve BL", BL_MODULE::get);
+        Future<SwerveModule> br = boot.submit("Swerve BR", BR_MODULE::get);
+        Future<SwerveAHRS> gyro = boot.submit("navX", () -> new SwerveAHRS(SPI.Port.kMXP, GYRO_UPDATE_RATE));
+
         CLIMBER_PRESET_GROUP.addPreset(ROTATION_NAME, ROTATION_PRESETS);
         CLIMBER_PRESET_GROUP.addPreset(EXTENSION_NAME, EXTENSION_PRESETS);
         CLIMBER_PRESET_GROUP.addPreset(WRIST_NAME, WRIST_PRESETS);
 
-        swerveDrive = new SwerveDriveSubsystem(FL_MODULE, FR_MODULE, BL_MODULE, BR_MODULE, SIDE_LENGTH);
-        arm = new ClimberArmSubsystem();
-        wrist = new ClimberWristSubsystem();
-        pump = new VacuumSubsystem();
-        power = new PowerDistribution();
+        arm = boot.run("ClimberArmSubsystem", ClimberArmSubsystem::new);
+        wrist = boot.run("ClimberWristSubsystem", ClimberWristSubsystem::new);
+        pump = boot.run("VacuumSubsystem", VacuumSubsystem::new);
+        power = boot.run("PowerDistribution", () -> new PowerDistribution());
+        // Includes waiting for whichever module finishes last.
+        swerveDrive = boot.run("SwerveDriveSubsystem", () -> new SwerveDriveSubsystem(
+                Bootstrap.await(fl), Bootstrap.await(fr), Bootstrap.await(bl), Bootstrap.await(br),
+                Bootstrap.await(gyro), SIDE_LENGTH));
+        powerLog = DataRecorder.getInstance().register("PowerDistribution", power.getNumChannels() + 2);
+        powerLogStage = LoopProfiler.getInstance().stage("Power Log");
+
+        // Every sensor has been registered by now, so start reading them in the background.
+        SensorSnapshot.getInstance().start(SENSOR_PERIOD);
+
+        // Every loop starts by taking one consistent snapshot of every sensor and controller.
+        PhasedLoop loop = PhasedLoop.getInstance();
+        loop.register(LoopPhase.SENSE, SensorSnapshot.getInstance()::latch);
+        loop.register(LoopPhase.SENSE, HIDSnapshot::captureAll);
+
+        // Runs on the main thread between loops, but only every CAN_MONITOR_PERIOD rather than every loop.
+        CANBusMonitor canMonitor = new CANBusMonitor(CAN_MONITOR_WINDOW);
+        addPeriodic(canMonitor::update, CAN_MONITOR_PERIOD);
 
         // *** IMPORTANT: Call this method at the VERY END of robotInit!!! *** //
-        robotContainer = new RobotContainer();
+        robotContainer = boot.run("RobotContainer", RobotContainer::new);
+
+        // Every autonomous routine is built while disabled, long before the match starts (see disabledPeriodic).
+        AutoRoutines.registerAll(AutoRegistry.getInstance());
+        AutoRegistry.getInstance().addOptions(autoMode);
+        SmartDashboard.putData("Auto Mode", autoMode);
+
+        // Every button is bound by now, so the profiler's command marker runs after all of them.
+        LoopProfiler.getInstance().bindCommands(getPeriod());
+
+        boot.finish();
+    }
+
+    /** Times every loop with the {@link LoopProfiler}, so overruns can be blamed on a subsystem or command. */
+    @Override
+    protected void loopFunc() {
+        LoopProfiler.getInstance().beginLoop();
+        super.loopFunc();
+        LoopProfiler.getInstance().endLoop();
     }
 
     /**
@@ -72,23 +148,48 @@ public class Robot extends TimedRobot {
      */
     @Override
     public void robotPeriodic() {
-        // Runs the Scheduler.  This is responsible for polling buttons, adding newly-scheduled
-        // commands, running already-scheduled commands, removing finished or interrupted commands,
-        // and running subsystem periodic() methods.  This must be called from the robot's periodic
-        // block in order for anything in the Command-based framework to work.
-        CommandScheduler.getInstance().run();
+        // Reads every input, updates the estimates, runs the scheduler and controllers, then sends every
+        // output, so a command's change is acted on in the same loop. See PhasedLoop.
+        PhasedLoop.getInstance().run();
+        HIDSnapshot.markOutputsSent();
+
+        CoalescingMotorController.updateDashboard();
+        updatePowerLog();
+    }
+
+    /** Logs the PDH voltage and currents every {@link frc.robot.Constants.Logging#POWER_LOG_DECIMATION} loops. */
+    private void updatePowerLog() {
+        if (++powerLogLoops < POWER_LOG_DECIMATION) return;
+        powerLogLoops = 0;
+
+        powerLogStage.begin();
+        double[] values = powerLog.values();
+        values[0] = power.getVoltage();
+        values[1] = power.getTotalCurrent();
+        for (int i = 2; i < values.length; i++) {
+            values[i] = power.getCurrent(i - 2);
+        }
+        powerLog.append();
+        powerLogStage.end();
     }
 
     @Override public void disabledInit() { CommandScheduler.getInstance().cancelAll(); }
+
+    /** Builds one autonomous routine per loop, until every routine is built. */
+    @Override
+    public void disabledPeriodic() {
+        AutoRegistry.getInstance().buildNext();
+    }
+
     @Override public void testInit() { CommandScheduler.getInstance().cancelAll(); }
     @Override public void teleopInit() { CommandScheduler.getInstance().cancelAll(); }
 
-    /**
-     * This method is called periodically during operator control.
-     */
+    /** Runs the routine selected in {@link #autoMode}, which was already built by the {@link AutoRegistry}. */
     @Override
-    public void teleopPeriodic() {
-        Robot.arm.getExtension().translateMotor(deadband(-RobotContainer.xbox.getLeftY() / 2, 0.1));
-        Robot.arm.getRotation().translateMotor(deadband(-RobotContainer.xbox.getRightY(), 0.1));
+    public void autonomousInit() {
+        CommandScheduler.getInstance().cancelAll();
+
+        Command routine = AutoRegistry.getInstance().get(autoMode.getSelected());
+        if (routine != null) routine.schedule();
     }
-}
\ No newline at end of file
+}
@@ -6,15 +6,20 @@
 package frc.robot;
 
 
+import edu.wpi.first.wpilibj.smartdashboard.SendableChooser;
+import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj2.command.Commands;
 import edu.wpi.first.wpilibj2.command.button.CommandXboxController;
 import edu.wpi.first.wpilibj2.command.button.Trigger;
 import frc.robot.util.joystick.DriveJoystick;
+import frc.robot.util.joystick.DriveMode;
 import frc.robot.util.joystick.DriveXboxController;
+import frc.robot.util.joystick.IDriveMode;
 
 import static frc.robot.Constants.ClimberPresets.*;
 import static frc.robot.Constants.Control.*;
 import static frc.robot.Robot.CLIMBER_PRESET_GROUP;
+import static frc.robot.util.math.ExtendedMath.deadband;
 
 /**
  * This class is where the bulk of the robot should be declared. Since Command-based is a
@@ -26,6 +31,8 @@ public class RobotContainer {
     private final DriveJoystick xyStick = new DriveJoystick(LEFT_STICK_ID);
     private final DriveJoystick zStick = new DriveJoystick(RIGHT_STICK_ID);
     public static final DriveXboxController xbox = new DriveXboxController(XBOX_CONTROLLER_ID);
+    // Every mode is built up front, so switching while driving is only a reference swap.
+    private final SendableChooser<IDriveMode> driveModeChooser = new SendableChooser<>();
 
     /**
      * The container for the robot. Contains subsystems, OI devices, and commands.
@@ -34,10 +41,23 @@ public class RobotContainer {
         // Configure the trigger bindings
         configureBindings();
 
+        for (IDriveMode mode : DriveMode.MODES) {
+            driveModeChooser.addOption(mode.getName(), mode);
+        }
+        driveModeChooser.setDefaultOption(DriveMode.CUBIC.getName(), DriveMode.CUBIC);
+        SmartDashboard.putData("Drive Mode", driveModeChooser);
+
         Robot.swerveDrive.setDefaultCommand(Robot.swerveDrive.run(() ->  {
+            Robot.swerveDrive.setDriveMode(driveModeChooser.getSelected());
             Robot.swerveDrive.drive(xyStick, zStick);
         }));
 
+        // translateMotor only moves the arm in teleop, so this does nothing during autonomous.
+        Robot.arm.setDefaultCommand(Robot.arm.run(() -> {
+            Robot.arm.getExtension().translateMotor(deadband(-xbox.getLeftY() / 2, 0.1));
+            Robot.arm.getRotation().translateMotor(deadband(-xbox.getRightY(), 0.1));
+        }));
+
         if (Robot.wrist.getTargetRotation() > 500) {
             Robot.wrist.setTarget(0);
         }
@@ -0,0 +1,57 @@
+package frc.robot.commands.auto;
+
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.Commands;
+import frc.robot.Robot;
+import frc.robot.util.auto.AutoRegistry;
+import frc.robot.util.auto.BinaryTrajectory;
+import frc.robot.util.auto.TrajectoryCache;
+
+import static frc.robot.Constants.ClimberPresets.*;
+import static frc.robot.Robot.CLIMBER_PRESET_GROUP;
+
+/**
+ * Every autonomous routine. These are registered with the {@link AutoRegistry} during robotInit, and are
+ * built one per loop while the robot is disabled.
+ */
+public class AutoRoutines {
+    // Rotate out before extending so the arm clears the bumpers, and retract before rotating back in.
+    private static final String[] ARM_ORDER = {ROTATION_NAME, EXTENSION_NAME, WRIST_NAME};
+    private static final String[] STOW_ORDER = {WRIST_NAME, EXTENSION_NAME, ROTATION_NAME};
+
+    private AutoRoutines() {}
+
+    public static void registerAll(AutoRegistry registry) {
+        registry.register("None", Commands::none);
+
+        registry.register("Score High Cone", () -> scoreCommand(HIGH_CONE_NAME));
+        registry.register("Score Mid Cone", () -> scoreCommand(MID_CONE_NAME));
+        registry.register("Score High Cone + Taxi", () -> scoreCommand(HIGH_CONE_NAME)
+                .andThen(followCommand("Taxi", true)));
+
+        // Every other path can be run on its own.
+        for (String name : TrajectoryCache.getInstance().getNames()) {
+            registry.register("Path: " + name, () -> followCommand(name, true));
+        }
+    }
+
+    /**
+     * Holds the preloaded game piece with the vacuum, moves the arm to a preset, releases the piece and stows
+     * the arm again.
+     */
+    private static Command scoreCommand(String preset) {
+        return Commands.sequence(
+                Robot.pump.activateCommand(),
+                CLIMBER_PRESET_GROUP.setPresetSyncCommand(preset, ARM_ORDER),
+                Robot.pump.deactivateCommand(),
+                Robot.pump.openVacuumCommand(),
+                CLIMBER_PRESET_GROUP.setPresetSyncCommand(ZERO_POSITION_NAME, STOW_ORDER)
+        );
+    }
+
+    private static Command followCommand(String path, boolean resetPose) {
+        BinaryTrajectory trajectory = TrajectoryCache.getInstance().get(path);
+        if (trajectory == null) throw new IllegalArgumentException("No trajectory named " + path);
+        return Robot.swerveDrive.followTrajectoryCommand(trajectory, resetPose);
+    }
+}
@@ -0,0 +1,83 @@
+package frc.robot.commands.auto;
+
+import edu.wpi.first.math.controller.PIDController;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj2.command.CommandBase;
+import frc.robot.subsystems.swerve.SwerveDriveSubsystem;
+import frc.robot.util.auto.BinaryTrajectory;
+import frc.robot.util.auto.TrajectorySample;
+import frc.robot.util.swerve.TimestampedPose;
+
+/**
+ * Follows a {@link BinaryTrajectory} with a holonomic controller: the trajectory's velocity is the
+ * feedforward, and the X, Y and heading controllers correct the error from the odometry pose. The
+ * trajectory and the odometry pose are read into the same {@link TrajectorySample} and {@link TimestampedPose}
+ * every loop, so following it does not allocate.
+ * <p>
+ * The controllers passed in are only used for their gains. Each command has its own copies, so commands never
+ * share controller state.
+ */
+public class FollowTrajectoryCommand extends CommandBase {
+    private final SwerveDriveSubsystem swerveDrive;
+    private final BinaryTrajectory trajectory;
+    private final PIDController xController, yController, headingController;
+    private final TrajectorySample sample = new TrajectorySample();
+    private final TimestampedPose pose = new TimestampedPose();
+    private final ChassisSpeeds speeds = new ChassisSpeeds();
+    private final Timer timer = new Timer();
+
+    public FollowTrajectoryCommand(SwerveDriveSubsystem swerveDrive, BinaryTrajectory trajectory,
+                                   PIDController xController, PIDController yController,
+                                   PIDController headingController) {
+        this.swerveDrive = swerveDrive;
+        this.trajectory = trajectory;
+        this.xController = copyOf(xController);
+        this.yController = copyOf(yController);
+        this.headingController = copyOf(headingController);
+        this.headingController.enableContinuousInput(-Math.PI, Math.PI);
+        addRequirements(swerveDrive);
+    }
+
+    private static PIDController copyOf(PIDController controller) {
+        return new PIDController(controller.getP(), controller.getI(), controller.getD(), controller.getPeriod());
+    }
+
+    @Override
+    public void initialize() {
+        xController.reset();
+        yController.reset();
+        headingController.reset();
+        timer.restart();
+    }
+
+    @Override
+    public void execute() {
+        trajectory.sample(timer.get(), sample);
+        swerveDrive.getPose(pose);
+        double robotAngle = pose.theta;
+
+        // Field-relative feedforward along the path, plus the correction towards the sampled pose.
+        double vx = sample.velocity * Math.cos(sample.heading) + xController.calculate(pose.x, sample.x);
+        double vy = sample.velocity * Math.sin(sample.heading) + yController.calculate(pose.y, sample.y);
+        double omega = sample.angularVelocity + headingController.calculate(robotAngle, sample.rotation);
+
+        // Rotate into the robot frame, like ChassisSpeeds#fromFieldRelativeSpeeds.
+        double cos = Math.cos(robotAngle), sin = Math.sin(robotAngle);
+        speeds.vxMetersPerSecond = vx * cos + vy * sin;
+        speeds.vyMetersPerSecond = -vx * sin + vy * cos;
+        speeds.omegaRadiansPerSecond = omega;
+        swerveDrive.drive(speeds);
+    }
+
+    @Override
+    public boolean isFinished() {
+        return timer.hasElapsed(trajectory.getTotalTime());
+    }
+
+    @Override
+    public void end(boolean interrupted) {
+        timer.stop();
+        swerveDrive.stop();
+    }
+}
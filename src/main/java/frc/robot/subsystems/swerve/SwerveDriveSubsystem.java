@@ -2,27 +2,49 @@ package frc.robot.subsystems.swerve;
 
 import com.kauailabs.navx.frc.AHRS;
 
+import edu.wpi.first.math.MathUtil;
 import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.kinematics.ChassisSpeeds;
 import edu.wpi.first.math.kinematics.SwerveModuleState;
+import edu.wpi.first.wpilibj.DataLogManager;
 import edu.wpi.first.wpilibj.SPI;
-import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj2.command.Command;
-import edu.wpi.first.wpilibj2.command.Commands;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import frc.robot.commands.auto.FollowTrajectoryCommand;
+import frc.robot.util.auto.BinaryTrajectory;
+import frc.robot.util.auto.TrajectorySample;
 import frc.robot.util.joystick.DriveMode;
 import frc.robot.util.joystick.IDriveHID;
 import frc.robot.util.joystick.IDriveMode;
+import frc.robot.util.log.DataRecorder;
+import frc.robot.util.log.LogChannel;
+import frc.robot.util.loop.LoopPhase;
+import frc.robot.util.loop.PhasedLoop;
 import frc.robot.util.math.Distance;
+import frc.robot.util.profiler.LoopProfiler;
+import frc.robot.util.profiler.ProfilerStage;
+import frc.robot.util.sensor.SensorSnapshot;
+import frc.robot.util.swerve.SkewCompensator;
 import frc.robot.util.swerve.SwerveAHRS;
 import frc.robot.util.swerve.SwerveChassis;
+import frc.robot.util.swerve.SwerveKinematics;
 import frc.robot.util.swerve.SwerveModule;
 import frc.robot.util.swerve.SwerveOdometry;
-
-import java.util.HashMap;
-
+import frc.robot.util.swerve.TimestampedPose;
+import frc.robot.util.telemetry.BooleanSignal;
+import frc.robot.util.telemetry.DoubleArraySignal;
+import frc.robot.util.telemetry.DoubleSignal;
+import frc.robot.util.telemetry.Telemetry;
+
+import static frc.robot.Constants.AutoValues.*;
+import static frc.robot.Constants.Chassis.GYRO_CALIBRATION_TIMEOUT;
+import static frc.robot.Constants.Chassis.GYRO_UPDATE_RATE;
+import static frc.robot.Constants.Chassis.HEADING_LATENCY;
+import static frc.robot.Constants.Chassis.ODOMETRY_PERIOD;
 import static frc.robot.Constants.Global.TEST_MODE;
+import static frc.robot.Constants.TelemetryValues.DEBUG_DECIMATION;
 
 /**
  * This {@link SwerveDriveSubsystem} is designed to be used for controlling the {@link SwerveChassis}, and utilizing
@@ -30,19 +52,52 @@ import static frc.robot.Constants.Global.TEST_MODE;
  * purposes (or for simple autonomous) as it allows driving in a specific direction.
  */
 public class SwerveDriveSubsystem extends SubsystemBase {
+    // The period simulationPeriodic() is called at, matching the default TimedRobot period.
+    private static final double SIMULATION_PERIOD = 0.02;
+
     private final SwerveAHRS gyro;
     private final SwerveChassis swerveChassis;
     private final SwerveOdometry odometry;
-    private Rotation2d robotHeading;
+    private final SensorSnapshot sensors;
+    private final int gyroAngleChannel;
+    private final int gyroRollChannel;
+    private final int gyroRateChannel;
+    private final SkewCompensator skewCompensator = new SkewCompensator();
+
+    private final DoubleSignal robotAngleSignal = Telemetry.number("Robot Angle");
+    private final DoubleSignal gyroPitchSignal = Telemetry.number("Gyro Pitch");
+    // The robot position as [x (m), y (m), heading (deg)].
+    private final DoubleArraySignal robotPositionSignal = Telemetry.numbers("Robot Position", 3, DEBUG_DECIMATION);
+    private final BooleanSignal gyroCalibratingSignal = Telemetry.bool("Gyro Calibrating", DEBUG_DECIMATION);
+    private final DoubleSignal simSpeedErrorSignal = Telemetry.number("Sim: Max Speed Error");
+    private final DoubleSignal simAngleErrorSignal = Telemetry.number("Sim: Max Angle Error");
+
+    // [velocity (m/s), angle (rad)] for each module in SwerveChassis order, and [x (m), y (m), heading (rad)].
+    private final LogChannel moduleStateLog;
+    private final LogChannel poseLog = DataRecorder.getInstance().register("Swerve/Pose", 3);
+    private final ProfilerStage profilerStage = LoopProfiler.getInstance().stage("SwerveDriveSubsystem");
+    // Counter-clockwise positive, in degrees.
+    private double robotHeadingDegrees;
+    private final double createdTime = Timer.getFPGATimestamp();
+    private boolean gyroReady = false;
 
     private IDriveMode driveMode;
+    // [x, y, twist] written by the drive mode every loop.
+    private final double[] driveModeOutput = new double[3];
+    // The newest odometry pose, read once per loop for logging.
+    private final TimestampedPose latestPose = new TimestampedPose();
 
     private boolean fieldOriented = false;
     private boolean closedLoop = false;
 
     public void setFieldOriented(boolean fieldOriented) { this.fieldOriented = fieldOriented; }
     public void setClosedLoop(boolean closedLoop) { this.closedLoop = closedLoop; }
-    public void setDriveMode(IDriveMode mode) { this.driveMode = mode; }
+    /** Switches the drive mode, resetting the new mode's slew rate limiting. Does nothing if it is already used. */
+    public void setDriveMode(IDriveMode mode) {
+        if (mode == null || mode == driveMode) return;
+        mode.reset();
+        this.driveMode = mode;
+    }
 
     public boolean isFieldOriented() { return this.fieldOriented; }
     public boolean isClosedLoop() { return this.closedLoop; }
@@ -52,17 +107,50 @@ public class SwerveDriveSubsystem extends SubsystemBase {
         return odometry.getPose();
     }
 
+    /**
+     * Copies the newest pose of the robot without creating any objects.
+     *
+     * @param out The {@link TimestampedPose} to write the pose into.
+     * @see SwerveOdometry#getLatestPose(TimestampedPose)
+     */
+    public void getPose(TimestampedPose out) {
+        odometry.getLatestPose(out);
+    }
+
+    /**
+     * Looks up the pose of the robot at a previous point in time, for measurements which arrive late.
+     *
+     * @param timestamp The FPGA timestamp (in seconds) to get the pose at.
+     * @param out       The {@link TimestampedPose} to write the interpolated pose into.
+     * @return If the timestamp was inside the recorded pose history.
+     * @see SwerveOdometry#getPoseAt(double, TimestampedPose)
+     */
+    public boolean getPoseAt(double timestamp, TimestampedPose out) {
+        return odometry.getPoseAt(timestamp, out);
+    }
+
+    /** @return A command which holds the wheels in an X until interrupted. See {@link SwerveChassis#lock()}. */
     public Command lockWheelCommand() {
-        return Commands.run(() -> {
-            swerveChassis.setStates(
-                    new SwerveModuleState[]{
-                            new SwerveModuleState(0, new Rotation2d(Math.PI/2)),
-                            new SwerveModuleState(0, new Rotation2d(Math.PI/2)),
-                            new SwerveModuleState(0, new Rotation2d(Math.PI/2)),
-                            new SwerveModuleState(0, new Rotation2d(Math.PI/2))
-                    }
-            );
-        });
+        return run(swerveChassis::lock);
+    }
+
+    /**
+     * Follows a trajectory using the odometry pose, and the X, Y and heading controllers in
+     * {@link frc.robot.Constants.AutoValues}. The robot stops once the trajectory is finished.
+     *
+     * @param trajectory The {@link BinaryTrajectory} to follow, in field coordinates.
+     * @param resetPose  If the odometry should be reset to the start of the trajectory first.
+     * @return The command following the trajectory.
+     */
+    public Command followTrajectoryCommand(BinaryTrajectory trajectory, boolean resetPose) {
+        Command follow = new FollowTrajectoryCommand(this, trajectory, X_CONTROLLER, Y_CONTROLLER, HEADING_CONTROLLER);
+        if (!resetPose) return follow;
+
+        return runOnce(() -> {
+            TrajectorySample start = new TrajectorySample();
+            trajectory.sample(0, start);
+            resetPositionPose(start.toPose2d());
+        }).andThen(follow);
     }
 
     public Command toggleFieldOrientedCommand() {
@@ -77,55 +165,149 @@ public class SwerveDriveSubsystem extends SubsystemBase {
         return this.runOnce(this::resetPosition);
     }
 
-    /** Initializes a new {@link SwerveDriveSubsystem}, and resets the Gyroscope. */
+    /** Initializes a new {@link SwerveDriveSubsystem}, with a navX on the MXP port. */
     public SwerveDriveSubsystem(SwerveModule fl, SwerveModule fr, SwerveModule bl, SwerveModule br, Distance sideLength) {
+        this(fl, fr, bl, br, new SwerveAHRS(SPI.Port.kMXP, GYRO_UPDATE_RATE), sideLength);
+    }
+
+    /**
+     * Initializes a new {@link SwerveDriveSubsystem}. The gyro does not need to be calibrated yet: driving is
+     * disabled until it is (see {@link #isGyroReady()}), and the gyro is reset once it finishes.
+     */
+    public SwerveDriveSubsystem(SwerveModule fl, SwerveModule fr, SwerveModule bl, SwerveModule br,
+                                SwerveAHRS gyro, Distance sideLength) {
         swerveChassis = new SwerveChassis(fl, fr, bl, br, sideLength);
-        gyro = new SwerveAHRS(SPI.Port.kMXP);
-        robotHeading = new Rotation2d(0);
+        this.gyro = gyro;
+
+        sensors = SensorSnapshot.getInstance();
+        gyroAngleChannel = sensors.register(gyro::getAngle);
+        gyroRollChannel = sensors.register(gyro::getRoll);
+        gyroRateChannel = sensors.register(gyro::getRate);
+        moduleStateLog = DataRecorder.getInstance().register("Swerve/ModuleStates", swerveChassis.getModuleCount() * 2);
 
         odometry = new SwerveOdometry(
                 swerveChassis,
-                this::getRobotHeading,
+                // The navX is clockwise positive, the odometry is counter-clockwise positive.
+                timestamp -> -Math.toRadians(gyro.getAngleAt(timestamp)),
                 swerveChassis::getSwerveModulePositions,
                 new Pose2d()
         );
 
-        gyro.reset();
-        gyro.calibrate();
-
-        driveMode = DriveMode.SMOOTH_MAP;
+        driveMode = DriveMode.CUBIC;
 
         resetPosition();
+        odometry.startThread(ODOMETRY_PERIOD);
+
+        PhasedLoop.getInstance().register(LoopPhase.ESTIMATE, this::estimate);
+        PhasedLoop.getInstance().register(LoopPhase.ACTUATE, this::actuate);
     }
 
     public SwerveAHRS getGyro() { return this.gyro; }
 
+    /** @return If the gyro has finished calibrating (or timed out), which enables driving. */
+    public boolean isGyroReady() { return this.gyroReady; }
+
+    /**
+     * Enables driving once the navX finishes calibrating on its own, and zeroes the heading at that point.
+     * If the navX never finishes (e.g. it is unplugged), driving is enabled after a timeout anyway.
+     */
+    private void checkGyroReady() {
+        boolean timedOut = Timer.getFPGATimestamp() - createdTime > GYRO_CALIBRATION_TIMEOUT;
+        if (gyro.isCalibrating() && !timedOut) return;
+
+        if (timedOut) DataLogManager.log("SwerveDriveSubsystem: gyro did not finish calibrating, driving anyway");
+        gyro.reset();
+        resetPosition();
+        gyroReady = true;
+    }
+
     /**
      * @return A {@link Rotation2d} containing the current rotation of the robot
      */
     public Rotation2d getRobotHeading() {
-        return robotHeading;
+        return Rotation2d.fromDegrees(robotHeadingDegrees);
+    }
+
+    /**
+     * Updates the heading and odometry from this loop's sensor snapshot, before any command drives with them.
+     * Runs in {@link LoopPhase#ESTIMATE}.
+     */
+    private void estimate() {
+        profilerStage.begin();
+
+        if (!gyroReady) checkGyroReady();
+
+        // The navX is clockwise positive, so the angle is negated like AHRS#getRotation2d().
+        robotHeadingDegrees = -sensors.get(gyroAngleChannel);
+        swerveChassis.checkTurnEncoders();
+
+        // The odometry normally runs on its own thread; only update it here if that thread is not running.
+        if (!odometry.isThreaded() && odometry.shouldUpdate())
+            odometry.update();
+
+        profilerStage.end();
+    }
+
+    /** Sends the module states the drive command calculated this loop. Runs in {@link LoopPhase#ACTUATE}. */
+    private void actuate() {
+        profilerStage.begin();
+        swerveChassis.flush();
+        profilerStage.end();
     }
 
     @Override
     public void periodic() {
-        // Update the robot speed and other information.
-        robotHeading = new Rotation2d(gyro.getRotation2d().getRadians());
+        profilerStage.begin();
 
-        if (odometry.shouldUpdate())
-            odometry.update();
+        odometry.updateDashboard();
+
+        double[] states = moduleStateLog.values();
+        for (int i = 0; i < swerveChassis.getModuleCount(); i++) {
+            SwerveModule module = swerveChassis.getModule(i);
+            states[i * 2] = module.getVelocityMPS();
+            states[i * 2 + 1] = module.getTurnRadians();
+        }
+        moduleStateLog.append();
+        odometry.getLatestPose(latestPose);
+        poseLog.append(latestPose.x, latestPose.y, latestPose.theta);
 
-        SmartDashboard.putNumber("Robot Angle", robotHeading.getDegrees()%360);
-        SmartDashboard.putNumber("Gyro Pitch", gyro.getRoll());
+        robotAngleSignal.set(robotHeadingDegrees % 360);
+        gyroPitchSignal.set(sensors.get(gyroRollChannel));
 
         if (TEST_MODE) {
-            SmartDashboard.putString("Robot Position", odometry.getPose().toString());
-            SmartDashboard.putBoolean("Gyro Calibrating", gyro.isCalibrating());
+            robotPositionSignal.set(latestPose.x, latestPose.y, Math.toDegrees(latestPose.theta));
+            gyroCalibratingSignal.set(gyro.isCalibrating());
+        }
+
+        profilerStage.end();
+    }
+
+    /**
+     * Runs the simulated modules and gyro, and publishes how closely the modules track their commanded
+     * states. This is only called by the {@link edu.wpi.first.wpilibj2.command.CommandScheduler} in simulation.
+     */
+    @Override
+    public void simulationPeriodic() {
+        swerveChassis.updateSimulation(SIMULATION_PERIOD);
+
+        ChassisSpeeds speeds = swerveChassis.getSwerveKinematics().toChassisSpeeds(swerveChassis.getSwerveModuleStates());
+        gyro.updateSimulation(speeds.omegaRadiansPerSecond, SIMULATION_PERIOD);
+
+        SwerveKinematics kinematics = swerveChassis.getKinematics();
+        double speedError = 0, angleError = 0;
+        for (int i = 0; i < swerveChassis.getModuleCount(); i++) {
+            SwerveModule module = swerveChassis.getModule(i);
+            speedError = Math.max(speedError, Math.abs(kinematics.getSpeed(i) - module.getVelocityMPS()));
+            angleError = Math.max(angleError,
+                    Math.abs(MathUtil.angleModulus(kinematics.getAngle(i) - module.getTurnRadians())));
         }
+
+        simSpeedErrorSignal.set(speedError);
+        simAngleErrorSignal.set(Math.toDegrees(angleError));
     }
 
-    /** @return A {@link HashMap} containing {@link SwerveModuleState} of the robot. */
-    public HashMap<String, SwerveModuleState> getSwerveModuleStates() {
+    /** @return The {@link SwerveModuleState} of each module, ordered by the {@link SwerveChassis} module index. */
+    public SwerveModuleState[] getSwerveModuleStates() {
         return swerveChassis.getSwerveModuleStates();
     }
 
@@ -138,27 +320,49 @@ public class SwerveDriveSubsystem extends SubsystemBase {
      * @see ChassisSpeeds#fromFieldRelativeSpeeds(double, double, double, Rotation2d)
      */
     public void drive(ChassisSpeeds speeds) {
+        if (!gyroReady) {
+            swerveChassis.drive(0, 0, 0);
+            return;
+        }
         swerveChassis.drive(speeds);
     }
 
     /**
      * Drives the Robot using specific speeds, which is converted to field-relative or robot-relative
-     * automatically. Unlike {@link #drive(ChassisSpeeds)}, it will compensate for the angle of the Robot.
+     * automatically. Unlike {@link #drive(ChassisSpeeds)}, it will compensate for the angle of the Robot,
+     * and for the rotation of the robot during the loop (see {@link SkewCompensator}), so the robot drives
+     * straight while turning.
      *
      * @param vX X-direction m/s (+ forward, - reverse)
      * @param vY Y-direction m/s (+ left, - right)
      * @param omega Yaw rad/s (+ left, - right)
      */
     public void drive(double vX, double vY, double omega) {
-        this.drive(ChassisSpeeds.fromFieldRelativeSpeeds(vX, vY, omega, fieldOriented ? odometry.getPose().getRotation() : new Rotation2d(0)));
+        if (!gyroReady) {
+            swerveChassis.drive(0, 0, 0);
+            return;
+        }
+
+        double heading = 0, yawRate = 0;
+        if (fieldOriented) {
+            heading = odometry.getHeadingRadians();
+            // The navX is clockwise positive.
+            yawRate = -Math.toRadians(sensors.get(gyroRateChannel));
+        }
+
+        // The speeds are held for about as long as the last loop took, which is longer when loops overrun.
+        double dt = swerveChassis.measurePeriod();
+        skewCompensator.calculate(vX, vY, omega, heading, yawRate, HEADING_LATENCY, dt);
+        swerveChassis.drive(skewCompensator.getVx(), skewCompensator.getVy(), skewCompensator.getOmega(), dt);
     }
 
     public void drive(IDriveHID leftStick, IDriveHID rightStick) {
-        this.drive(
-                driveMode.getX(leftStick.getRobotX()),
-                driveMode.getY(leftStick.getRobotY()),
-                driveMode.getTwist(rightStick.getRobotTwist())
-        );
+        if (driveMode.appliesDeadband()) {
+            driveMode.apply(leftStick.getRawRobotX(), leftStick.getRawRobotY(), rightStick.getRawRobotTwist(), driveModeOutput);
+        } else {
+            driveMode.apply(leftStick.getRobotX(), leftStick.getRobotY(), rightStick.getRobotTwist(), driveModeOutput);
+        }
+        this.drive(driveModeOutput[0], driveModeOutput[1], driveModeOutput[2]);
     }
 
     public void drive(IDriveHID stick) {
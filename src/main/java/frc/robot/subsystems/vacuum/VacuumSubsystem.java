@@ -2,25 +2,48 @@ package frc.robot.subsystems.vacuum;
 
 import com.revrobotics.CANSparkMax;
 import edu.wpi.first.wpilibj.*;
-import edu.wpi.first.wpilibj.motorcontrol.MotorControllerGroup;
-import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj2.command.*;
+import frc.robot.util.log.DataRecorder;
+import frc.robot.util.log.LogChannel;
+import frc.robot.util.motor.CoalescingMotorController;
+import frc.robot.util.motor.SparkMaxConfigManager;
+import frc.robot.util.profiler.LoopProfiler;
+import frc.robot.util.profiler.ProfilerStage;
+import frc.robot.util.telemetry.BooleanSignal;
+import frc.robot.util.telemetry.DoubleSignal;
+import frc.robot.util.telemetry.Telemetry;
 import frc.robot.util.vacuum.SolenoidGroup;
 import frc.robot.util.vacuum.VacuumSensorGroup;
 
 import static frc.robot.Constants.Global.TEST_MODE;
+import static frc.robot.Constants.MotorConfigs.VACUUM_CONFIG;
 import static frc.robot.Constants.VacuumValues.*;
 
 public class VacuumSubsystem extends SubsystemBase {
     public static final PneumaticsModuleType MODULE_TYPE = PneumaticsModuleType.CTREPCM;
 
-    private final MotorControllerGroup motor;
+    private final CoalescingMotorController motor;
 
     public VacuumSensorGroup sensors;
     public SolenoidGroup solenoids;
 
     private boolean vacEnabled = false;
 
+    private final BooleanSignal runningSignal = Telemetry.bool("Vacuum: Running");
+    private final DoubleSignal powerSignal = Telemetry.number("Vacuum: Power");
+    private final DoubleSignal[] sensorSignals = new DoubleSignal[]{
+            Telemetry.number("Vacuum: Sensor 1"),
+            Telemetry.number("Vacuum: Sensor 2"),
+            Telemetry.number("Vacuum: Sensor 3"),
+            Telemetry.number("Vacuum: Sensor 4")
+    };
+    private final BooleanSignal boundSignal = Telemetry.bool("Vacuum: Bound");
+    private final BooleanSignal solenoidSignal = Telemetry.bool("Vacuum: Solenoid");
+
+    // [motor power, sensor 1 voltage, ..., sensor 4 voltage]
+    private final LogChannel log = DataRecorder.getInstance().register("Vacuum", 5);
+    private final ProfilerStage profilerStage = LoopProfiler.getInstance().stage("VacuumSubsystem.periodic()");
+
     public void toggleVacuum() {
         if (motor.get() == 0) {
             activate();
@@ -30,12 +53,12 @@ public class VacuumSubsystem extends SubsystemBase {
     }
 
     public VacuumSubsystem() {
-        this.motor = new MotorControllerGroup(
-            new CANSparkMax(VACUUM_MOTOR_IDS[0], VACUUM_MOTOR_TYPE),
-            new CANSparkMax(VACUUM_MOTOR_IDS[1], VACUUM_MOTOR_TYPE),
-            new CANSparkMax(VACUUM_MOTOR_IDS[2], VACUUM_MOTOR_TYPE),
-            new CANSparkMax(VACUUM_MOTOR_IDS[3], VACUUM_MOTOR_TYPE)
-        );
+        CANSparkMax[] motors = new CANSparkMax[VACUUM_MOTOR_IDS.length];
+        for (int i = 0; i < motors.length; i++) {
+            motors[i] = new CANSparkMax(VACUUM_MOTOR_IDS[i], VACUUM_MOTOR_TYPE);
+            SparkMaxConfigManager.getInstance().apply(motors[i], VACUUM_CONFIG);
+        }
+        this.motor = CoalescingMotorController.group("Vacuum", motors);
 
         solenoids = new SolenoidGroup(
             new Solenoid(0, MODULE_TYPE, VACUUM_SOLENOIDS[0][0]),
@@ -84,19 +107,27 @@ public class VacuumSubsystem extends SubsystemBase {
      */
     @Override
     public void periodic() {
-        SmartDashboard.putBoolean("Vacuum: Running", motor.get() != 0);
+        profilerStage.begin();
+
+        runningSignal.set(motor.get() != 0);
 
         if (TEST_MODE) {
-            SmartDashboard.putNumber("Vacuum: Power", motor.get());
+            powerSignal.set(motor.get());
+        }
+
+        double[] values = log.values();
+        values[0] = motor.get();
+        for (int i = 0; i < sensorSignals.length; i++) {
+            double voltage = sensors.get(i).getVoltage();
+            sensorSignals[i].set(voltage);
+            values[i + 1] = voltage;
         }
+        log.append();
 
-        SmartDashboard.putNumber("Vacuum: Sensor 1", sensors.get(0).getVoltage());
-        SmartDashboard.putNumber("Vacuum: Sensor 2", sensors.get(1).getVoltage());
-        SmartDashboard.putNumber("Vacuum: Sensor 3", sensors.get(2).getVoltage());
-        SmartDashboard.putNumber("Vacuum: Sensor 4", sensors.get(3).getVoltage());
+        boundSignal.set(sensors.isAnyBound());
+        solenoidSignal.set(solenoids.get());
 
-        SmartDashboard.putBoolean("Vacuum: Bound", sensors.isAnyBound());
-        SmartDashboard.putBoolean("Vacuum: Solenoid", solenoids.get());
+        profilerStage.end();
     }
 }
 
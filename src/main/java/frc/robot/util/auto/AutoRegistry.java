@@ -0,0 +1,129 @@
+package frc.robot.util.auto;
+
+import edu.wpi.first.wpilibj.DataLogManager;
+import edu.wpi.first.wpilibj.smartdashboard.SendableChooser;
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.CommandScheduler;
+import edu.wpi.first.wpilibj2.command.Commands;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Builds the command graph of every autonomous routine ahead of time, so selecting a routine when the match
+ * starts is only a map lookup. The time each routine took to build is logged.
+ * <p>
+ * Composing commands registers them with the {@link CommandScheduler}, which is not thread-safe, so routines
+ * are only ever built on the main robot thread. {@link #buildNext()} builds one routine at a time, and is
+ * called every loop while the robot is disabled. Any routine still not built when it is requested is built by
+ * {@link #get(String)}.
+ */
+public class AutoRegistry {
+    private static final AutoRegistry INSTANCE = new AutoRegistry();
+
+    private final Map<String, Supplier<Command>> builders = new LinkedHashMap<>();
+    private final Map<String, Command> routines = new HashMap<>();
+    private final List<String> names = new ArrayList<>();
+    private int nextBuild = 0;
+
+    private AutoRegistry() {}
+
+    public static AutoRegistry getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Adds a routine to be built.
+     *
+     * @param name    The name of the routine shown in the chooser.
+     * @param builder Builds the command of the routine. This is called once, on the main robot thread.
+     * @return The {@link AutoRegistry} instance.
+     */
+    public AutoRegistry register(String name, Supplier<Command> builder) {
+        if (builders.put(name, builder) == null) names.add(name);
+        return this;
+    }
+
+    /**
+     * Builds the next routine which has not been built yet. Routines look up their trajectories while being
+     * built, so nothing is built until the {@link TrajectoryCache} has finished loading. Call this once per
+     * loop while the robot is disabled, so the builds are spread out over several loops.
+     */
+    public void buildNext() {
+        if (isReady() || !TrajectoryCache.getInstance().isLoaded()) return;
+
+        String name = names.get(nextBuild++);
+        if (!routines.containsKey(name)) build(name);
+
+        if (isReady()) {
+            DataLogManager.log(String.format("AutoRegistry: built %d routines", routines.size()));
+        }
+    }
+
+    /** Builds every routine which has not been built yet, on the calling (main) thread. */
+    public void buildAll() {
+        for (String name : names) {
+            if (!routines.containsKey(name)) build(name);
+        }
+        nextBuild = names.size();
+    }
+
+    private Command build(String name) {
+        long start = System.nanoTime();
+        Command routine;
+        try {
+            routine = builders.get(name).get();
+        } catch (RuntimeException e) {
+            DataLogManager.log("AutoRegistry: could not build " + name + ": " + e);
+            routine = Commands.none();
+        }
+
+        routines.put(name, routine);
+        DataLogManager.log(String.format("AutoRegistry: %s took %.2f ms", name, (System.nanoTime() - start) / 1e6));
+        return routine;
+    }
+
+    /**
+     * Adds every registered routine to a chooser, with the first one as the default.
+     *
+     * @param chooser The {@link SendableChooser} of routine names.
+     */
+    public void addOptions(SendableChooser<String> chooser) {
+        for (int i = 0; i < names.size(); i++) {
+            if (i == 0) chooser.setDefaultOption(names.get(i), names.get(i));
+            else chooser.addOption(names.get(i), names.get(i));
+        }
+    }
+
+    /** @return The names of every registered routine, in the order they were registered. */
+    public List<String> getNames() {
+        return Collections.unmodifiableList(names);
+    }
+
+    /** @return If every routine has been built. */
+    public boolean isReady() {
+        return nextBuild >= names.size();
+    }
+
+    /**
+     * Gets a built routine. If it has not been built yet (which should only happen if autonomous starts right
+     * after boot), it is built now.
+     *
+     * @param name The name of the routine.
+     * @return The command of the routine, or null if no routine has the name.
+     */
+    public Command get(String name) {
+        if (name == null || !builders.containsKey(name)) return null;
+
+        Command routine = routines.get(name);
+        if (routine != null) return routine;
+
+        DataLogManager.log("AutoRegistry: " + name + " was requested before it was built");
+        return build(name);
+    }
+}
@@ -0,0 +1,145 @@
+package frc.robot.util.auto;
+
+import com.pathplanner.lib.PathPlannerTrajectory;
+import com.pathplanner.lib.PathPlannerTrajectory.PathPlannerState;
+
+import edu.wpi.first.math.MathUtil;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A trajectory stored as fixed-stride records of doubles, so it can be memory-mapped straight from a file
+ * compiled by the {@link TrajectoryCompiler} instead of parsing JSON on the robot.
+ * <p>
+ * The file starts with a header of {@link #MAGIC}, {@link #VERSION}, the record count and the record
+ * stride in bytes (all ints), followed by one record per state:
+ * [time, x, y, heading, rotation, velocity, acceleration, curvature, angular velocity].
+ * Everything is little-endian.
+ */
+public class BinaryTrajectory {
+    public static final String EXTENSION = ".traj";
+    public static final int MAGIC = 0x4A415254; // "TRAJ"
+    public static final int VERSION = 1;
+
+    private static final int HEADER_BYTES = 16;
+    private static final int FIELDS = 9;
+    private static final int STRIDE = FIELDS * Double.BYTES;
+    private static final int TIME = 0, X = 8, Y = 16, HEADING = 24, ROTATION = 32, VELOCITY = 40,
+            ACCELERATION = 48, CURVATURE = 56, ANGULAR_VELOCITY = 64;
+
+    private final ByteBuffer buffer;
+    private final int count;
+
+    private BinaryTrajectory(ByteBuffer buffer) {
+        this.buffer = buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION || buffer.getInt(12) != STRIDE)
+            throw new IllegalArgumentException("Not a version " + VERSION + " binary trajectory");
+        this.count = buffer.getInt(8);
+        if (count < 1 || buffer.limit() < HEADER_BYTES + count * STRIDE)
+            throw new IllegalArgumentException("Binary trajectory is truncated");
+    }
+
+    /**
+     * Memory-maps a compiled trajectory. The mapping stays valid after the channel is closed.
+     *
+     * @param file The path of the compiled trajectory.
+     * @return The {@link BinaryTrajectory}.
+     * @throws IOException If the file could not be read.
+     */
+    public static BinaryTrajectory map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return new BinaryTrajectory(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Copies a PathPlanner trajectory into the binary format, on the heap.
+     *
+     * @param trajectory The {@link PathPlannerTrajectory} to copy.
+     * @return The {@link BinaryTrajectory}.
+     */
+    public static BinaryTrajectory of(PathPlannerTrajectory trajectory) {
+        return new BinaryTrajectory(encode(trajectory));
+    }
+
+    /**
+     * @param trajectory The {@link PathPlannerTrajectory} to encode.
+     * @return A buffer with the header and every state of the trajectory, ready to be written to a file.
+     */
+    static ByteBuffer encode(PathPlannerTrajectory trajectory) {
+        int states = trajectory.getStates().size();
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + states * STRIDE).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(states).putInt(STRIDE);
+
+        for (int i = 0; i < states; i++) {
+            PathPlannerState state = trajectory.getState(i);
+            buffer.putDouble(state.timeSeconds)
+                    .putDouble(state.poseMeters.getX())
+                    .putDouble(state.poseMeters.getY())
+                    .putDouble(state.poseMeters.getRotation().getRadians())
+                    .putDouble(state.holonomicRotation.getRadians())
+                    .putDouble(state.velocityMetersPerSecond)
+                    .putDouble(state.accelerationMetersPerSecondSq)
+                    .putDouble(state.curvatureRadPerMeter)
+                    .putDouble(state.holonomicAngularVelocityRadPerSec);
+        }
+        return buffer.flip();
+    }
+
+    /** @return The amount of states in the trajectory. */
+    public int getStateCount() { return count; }
+
+    /** @return The length of the trajectory in seconds. */
+    public double getTotalTime() { return get(count - 1, TIME); }
+
+    private double get(int index, int field) {
+        return buffer.getDouble(HEADER_BYTES + index * STRIDE + field);
+    }
+
+    /**
+     * Interpolates the state of the trajectory at a point in time. Times outside the trajectory are clamped
+     * to its first or last state.
+     *
+     * @param time The time since the start of the trajectory in seconds.
+     * @param out  The {@link TrajectorySample} to write the state into.
+     */
+    public void sample(double time, TrajectorySample out) {
+        // Find the last state at or before the time.
+        int low = 0, high = count - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (get(mid, TIME) <= time) low = mid;
+            else high = mid - 1;
+        }
+
+        int next = Math.min(low + 1, count - 1);
+        double start = get(low, TIME), end = get(next, TIME);
+        double t = end > start ? MathUtil.clamp((time - start) / (end - start), 0, 1) : 0;
+
+        out.time = time;
+        out.x = lerp(low, next, X, t);
+        out.y = lerp(low, next, Y, t);
+        out.heading = lerpAngle(low, next, HEADING, t);
+        out.rotation = lerpAngle(low, next, ROTATION, t);
+        out.velocity = lerp(low, next, VELOCITY, t);
+        out.acceleration = lerp(low, next, ACCELERATION, t);
+        out.curvature = lerp(low, next, CURVATURE, t);
+        out.angularVelocity = lerp(low, next, ANGULAR_VELOCITY, t);
+    }
+
+    private double lerp(int a, int b, int field, double t) {
+        double start = get(a, field);
+        return start + (get(b, field) - start) * t;
+    }
+
+    private double lerpAngle(int a, int b, int field, double t) {
+        double start = get(a, field);
+        return MathUtil.angleModulus(start + MathUtil.angleModulus(get(b, field) - start) * t);
+    }
+}
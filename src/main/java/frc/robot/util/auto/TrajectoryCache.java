@@ -0,0 +1,153 @@
+package frc.robot.util.auto;
+
+import com.pathplanner.lib.PathConstraints;
+import com.pathplanner.lib.PathPlanner;
+import com.pathplanner.lib.PathPlannerTrajectory;
+
+import edu.wpi.first.wpilibj.DataLogManager;
+import edu.wpi.first.wpilibj.Filesystem;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Loads every trajectory in the deploy directory on a background thread, so starting autonomous is only a
+ * map lookup. Trajectories compiled by the {@link TrajectoryCompiler} are memory-mapped from
+ * {@code deploy/trajectories}, and any PathPlanner path without a compiled trajectory is parsed and
+ * time-parameterized instead. Trajectories are loaded once during robotInit, and are never reloaded.
+ */
+public class TrajectoryCache {
+    private static final String PATH_EXTENSION = ".path";
+    private static final TrajectoryCache INSTANCE = new TrajectoryCache();
+
+    private final Map<String, BinaryTrajectory> trajectories = new ConcurrentHashMap<>();
+    private final List<String> names = new ArrayList<>();
+    private File pathDirectory, compiledDirectory;
+    private PathConstraints constraints;
+    private Thread loadThread;
+    private volatile boolean loaded = false;
+
+    private TrajectoryCache() {}
+
+    public static TrajectoryCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Finds every trajectory in the deploy directory, and starts loading them on a background thread.
+     * Does nothing if the cache has already been started.
+     *
+     * @param constraints The {@link PathConstraints} paths without a compiled trajectory are time-parameterized with.
+     */
+    public synchronized void start(PathConstraints constraints) {
+        if (loadThread != null) return;
+        this.constraints = constraints;
+
+        pathDirectory = new File(Filesystem.getDeployDirectory(), "pathplanner");
+        compiledDirectory = new File(Filesystem.getDeployDirectory(), "trajectories");
+        TreeSet<String> found = new TreeSet<>();
+        addNames(pathDirectory, PATH_EXTENSION, found);
+        addNames(compiledDirectory, BinaryTrajectory.EXTENSION, found);
+        names.addAll(found);
+
+        loadThread = new Thread(this::loadAll, "TrajectoryCache");
+        loadThread.setDaemon(true);
+        loadThread.setPriority(Thread.MIN_PRIORITY);
+        loadThread.start();
+    }
+
+    private static void addNames(File directory, String extension, TreeSet<String> names) {
+        File[] files = directory.listFiles((dir, name) -> name.endsWith(extension));
+        if (files == null) return;
+
+        for (File file : files) {
+            String name = file.getName();
+            names.add(name.substring(0, name.length() - extension.length()));
+        }
+    }
+
+    private void loadAll() {
+        long start = System.nanoTime();
+        for (String name : names) {
+            load(name);
+        }
+        loaded = true;
+        DataLogManager.log(String.format("TrajectoryCache: loaded %d trajectories in %.1f ms",
+                trajectories.size(), (System.nanoTime() - start) / 1e6));
+    }
+
+    private BinaryTrajectory load(String name) {
+        long start = System.nanoTime();
+        BinaryTrajectory trajectory = null;
+        String source = "compiled";
+
+        File compiled = new File(compiledDirectory, name + BinaryTrajectory.EXTENSION);
+        if (compiled.isFile()) {
+            try {
+                trajectory = BinaryTrajectory.map(compiled.toPath());
+            } catch (IOException | IllegalArgumentException e) {
+                DataLogManager.log("TrajectoryCache: could not map " + compiled + ": " + e.getMessage());
+            }
+        }
+
+        if (trajectory == null && new File(pathDirectory, name + PATH_EXTENSION).isFile()) {
+            PathPlannerTrajectory path = PathPlanner.loadPath(name, constraints);
+            if (path != null) trajectory = BinaryTrajectory.of(path);
+            source = "parsed";
+        }
+
+        if (trajectory == null) {
+            DataLogManager.log("TrajectoryCache: could not load trajectory " + name);
+            return null;
+        }
+
+        trajectories.put(name, trajectory);
+        DataLogManager.log(String.format("TrajectoryCache: %s (%s) took %.1f ms",
+                name, source, (System.nanoTime() - start) / 1e6));
+        return trajectory;
+    }
+
+    /** @return The names of every trajectory found in the deploy directory, sorted alphabetically. */
+    public List<String> getNames() {
+        return Collections.unmodifiableList(names);
+    }
+
+    /** @return If every trajectory has finished loading. */
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Blocks until every trajectory has finished loading. Returns immediately if the cache was never started.
+     *
+     * @throws InterruptedException If the calling thread is interrupted while waiting.
+     */
+    public void awaitLoaded() throws InterruptedException {
+        Thread thread;
+        synchronized (this) {
+            thread = loadThread;
+        }
+        if (thread != null) thread.join();
+    }
+
+    /**
+     * Gets a loaded trajectory. If the background thread has not gotten to the trajectory yet (which should
+     * only happen if autonomous starts right after boot), it is loaded on the calling thread instead.
+     *
+     * @param name The name of the trajectory, without the extension.
+     * @return The {@link BinaryTrajectory}, or null if the trajectory does not exist.
+     */
+    public BinaryTrajectory get(String name) {
+        BinaryTrajectory trajectory = trajectories.get(name);
+        if (trajectory != null || loaded || !names.contains(name)) return trajectory;
+
+        DataLogManager.log("TrajectoryCache: " + name + " was requested before it was loaded");
+        return load(name);
+    }
+}
@@ -0,0 +1,50 @@
+package frc.robot.util.auto;
+
+import com.pathplanner.lib.PathPlanner;
+import com.pathplanner.lib.PathPlannerTrajectory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+import static frc.robot.Constants.Trajectories.PATH_CONSTRAINTS;
+
+/**
+ * Compiles every PathPlanner path into a {@link BinaryTrajectory} at build time, so the robot never has to
+ * parse JSON. This is run by the {@code compileTrajectories} Gradle task from the project directory, which
+ * is where PathPlanner looks for the deploy directory when not running on a roboRIO.
+ */
+public class TrajectoryCompiler {
+    private static final String PATH_EXTENSION = ".path";
+
+    public static void main(String[] args) throws IOException {
+        File pathDirectory = new File(args[0]);
+        Path outputDirectory = Paths.get(args[1]);
+        Files.createDirectories(outputDirectory);
+
+        File[] files = pathDirectory.listFiles((dir, name) -> name.endsWith(PATH_EXTENSION));
+        if (files == null) return;
+
+        for (File file : files) {
+            String name = file.getName().substring(0, file.getName().length() - PATH_EXTENSION.length());
+            PathPlannerTrajectory trajectory = PathPlanner.loadPath(name, PATH_CONSTRAINTS);
+            if (trajectory == null)
+                throw new IOException("Could not load path " + file);
+
+            ByteBuffer buffer = BinaryTrajectory.encode(trajectory);
+            Path output = outputDirectory.resolve(name + BinaryTrajectory.EXTENSION);
+            try (FileChannel channel = FileChannel.open(output, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                while (buffer.hasRemaining()) channel.write(buffer);
+            }
+
+            System.out.printf("%s: %d states, %.2f s -> %s%n",
+                    name, trajectory.getStates().size(), trajectory.getTotalTimeSeconds(), output);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package frc.robot.util.auto;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+
+/**
+ * A mutable, primitive state of a trajectory at a point in time. This is meant to be allocated once and
+ * filled by {@link BinaryTrajectory#sample(double, TrajectorySample)}, so a trajectory can be followed
+ * without creating any objects.
+ */
+public class TrajectorySample {
+    public double time;
+    public double x;
+    public double y;
+    /** The direction of travel in radians. */
+    public double heading;
+    /** The direction the robot is facing in radians. */
+    public double rotation;
+    public double velocity;
+    public double acceleration;
+    public double curvature;
+    /** The rate the robot is turning at in rad/sec. */
+    public double angularVelocity;
+
+    /** @return A new {@link Pose2d} facing the {@link #rotation} of the robot. */
+    public Pose2d toPose2d() {
+        return new Pose2d(x, y, new Rotation2d(rotation));
+    }
+}
@@ -0,0 +1,149 @@
+package frc.robot.util.boot;
+
+import edu.wpi.first.wpilibj.DataLogManager;
+
+import java.lang.management.ClassLoadingMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.RuntimeMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the steps of robotInit, timing each one so a boot timeline can be printed at the end. Independent
+ * devices (which do not touch the {@link edu.wpi.first.wpilibj2.command.CommandScheduler}, so not
+ * subsystems) can be submitted to a small pool of worker threads and configured in parallel, while the main
+ * thread keeps going with the rest of robotInit.
+ * <p>
+ * The classes loaded by each step are read from the {@link ClassLoadingMXBean}. The count is JVM-wide, so a
+ * step running alongside others is also charged for the classes they loaded in the meantime.
+ */
+public class Bootstrap {
+    private final ClassLoadingMXBean classLoading = ManagementFactory.getClassLoadingMXBean();
+    private final RuntimeMXBean runtime = ManagementFactory.getRuntimeMXBean();
+    private final ExecutorService executor;
+    private final List<Step> steps = new ArrayList<>();
+
+    // Uptime of the JVM and classes loaded when robotInit started, i.e. the cost of starting WPILib itself.
+    private final long startUptimeMs;
+    private final long startNanos;
+    private final long startClasses;
+
+    private static class Step {
+        final String name;
+        final String thread;
+        final double startMs;
+        final double durationMs;
+        final long classes;
+
+        Step(String name, String thread, double startMs, double durationMs, long classes) {
+            this.name = name;
+            this.thread = thread;
+            this.startMs = startMs;
+            this.durationMs = durationMs;
+            this.classes = classes;
+        }
+    }
+
+    /** @param threads The amount of worker threads devices are configured on. */
+    public Bootstrap(int threads) {
+        this.startUptimeMs = runtime.getUptime();
+        this.startNanos = System.nanoTime();
+        this.startClasses = classLoading.getTotalLoadedClassCount();
+
+        AtomicInteger count = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "Bootstrap-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Runs a step on a worker thread.
+     *
+     * @param name The name of the step in the timeline.
+     * @param task Creates and configures the device.
+     * @return A {@link Future} of the device, to pass to {@link #await(Future)}.
+     */
+    public <T> Future<T> submit(String name, Callable<T> task) {
+        return executor.submit(() -> time(name, task));
+    }
+
+    /**
+     * Runs a step on the calling thread.
+     *
+     * @param name The name of the step in the timeline.
+     * @param task Creates the device or subsystem.
+     * @return The result of the task.
+     */
+    public <T> T run(String name, Callable<T> task) {
+        try {
+            return time(name, task);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException("Boot step " + name + " failed", e);
+        }
+    }
+
+    /**
+     * Waits for a step submitted with {@link #submit(String, Callable)}.
+     *
+     * @param future The {@link Future} of the step.
+     * @return The result of the step.
+     */
+    public static <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while booting", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw new RuntimeException(cause);
+        }
+    }
+
+    private <T> T time(String name, Callable<T> task) throws Exception {
+        long classes = classLoading.getTotalLoadedClassCount();
+        long start = System.nanoTime();
+        try {
+            return task.call();
+        } finally {
+            long end = System.nanoTime();
+            Step step = new Step(name, Thread.currentThread().getName(), (start - startNanos) / 1e6,
+                    (end - start) / 1e6, classLoading.getTotalLoadedClassCount() - classes);
+            synchronized (steps) {
+                steps.add(step);
+            }
+        }
+    }
+
+    /** Stops the worker threads, and prints the boot timeline to the log and console. */
+    public void finish() {
+        executor.shutdown();
+        double totalMs = (System.nanoTime() - startNanos) / 1e6;
+
+        StringBuilder timeline = new StringBuilder("Boot timeline:\n");
+        timeline.append(String.format("  %-28s %9s %9s %8s  %s%n", "step", "start ms", "took ms", "classes", "thread"));
+        timeline.append(String.format("  %-28s %9s %9d %8d%n", "JVM + WPILib startup", "", startUptimeMs, startClasses));
+        synchronized (steps) {
+            steps.sort((a, b) -> Double.compare(a.startMs, b.startMs));
+            for (Step step : steps) {
+                timeline.append(String.format("  %-28s %9.1f %9.1f %8d  %s%n",
+                        step.name, step.startMs, step.durationMs, step.classes, step.thread));
+            }
+        }
+        timeline.append(String.format("  robotInit took %.1f ms (%d ms since JVM start), %d classes loaded",
+                totalMs, runtime.getUptime(), classLoading.getTotalLoadedClassCount()));
+        DataLogManager.log(timeline.toString());
+    }
+}
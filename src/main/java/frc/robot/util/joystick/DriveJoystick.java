@@ -1,6 +1,9 @@
 package frc.robot.util.joystick;
 
+import edu.wpi.first.wpilibj.Joystick;
+import edu.wpi.first.wpilibj.event.EventLoop;
 import edu.wpi.first.wpilibj2.command.button.CommandJoystick;
+import edu.wpi.first.wpilibj2.command.button.Trigger;
 import frc.robot.util.math.ExtendedMath;
 
 public class DriveJoystick extends CommandJoystick implements IDriveHID {
@@ -8,6 +11,8 @@ public class DriveJoystick extends CommandJoystick implements IDriveHID {
     private final boolean joyYInverted;
     private final boolean joyTwistInverted;
     private double deadband;
+    // Every axis and button is read from here, so one loop only ever sees one sample of the controller.
+    private final HIDSnapshot snapshot = HIDSnapshot.forPort(getHID().getPort());
 
     /**
      * Constructs a {@link DriveJoystick}
@@ -51,12 +56,80 @@ public class DriveJoystick extends CommandJoystick implements IDriveHID {
         this.deadband = DEFAULT_DEADBAND;
     }
 
+    @Override
+    public double getRawAxis(int axis) {
+        return snapshot.getAxis(axis);
+    }
+
+    @Override
+    public Trigger button(int button, EventLoop loop) {
+        return snapshot.button(button, loop);
+    }
+
+    @Override
+    public Trigger pov(int pov, int angle, EventLoop loop) {
+        return snapshot.pov(pov, angle, loop);
+    }
+
+    @Override
+    public Trigger axisLessThan(int axis, double threshold, EventLoop loop) {
+        return snapshot.axisLessThan(axis, threshold, loop);
+    }
+
+    @Override
+    public Trigger axisGreaterThan(int axis, double threshold, EventLoop loop) {
+        return snapshot.axisGreaterThan(axis, threshold, loop);
+    }
+
+    @Override
+    public double getX() {
+        return snapshot.getAxis(getHID().getXChannel());
+    }
+
+    @Override
+    public double getY() {
+        return snapshot.getAxis(getHID().getYChannel());
+    }
+
+    @Override
+    public double getZ() {
+        return snapshot.getAxis(getHID().getZChannel());
+    }
+
+    @Override
+    public double getTwist() {
+        return snapshot.getAxis(getHID().getTwistChannel());
+    }
+
+    @Override
+    public double getThrottle() {
+        return snapshot.getAxis(getHID().getThrottleChannel());
+    }
+
+    @Override
+    public Trigger trigger(EventLoop loop) {
+        return button(Joystick.ButtonType.kTrigger.value, loop);
+    }
+
+    @Override
+    public Trigger top(EventLoop loop) {
+        return button(Joystick.ButtonType.kTop.value, loop);
+    }
+
     /**
      * @return The X-axis (-1.0 to +1.0) using the robot-coordinate system. (+X forward, +Y left)
      */
     @Override
     public double getRobotX() {
-        return joyYInverted ? ExtendedMath.deadband(getY(), deadband) : ExtendedMath.deadband(-getY(), deadband);
+        return ExtendedMath.deadband(getRawRobotX(), deadband);
+    }
+
+    /**
+     * @return The X-axis (-1.0 to +1.0) using the robot-coordinate system, without the deadband.
+     */
+    @Override
+    public double getRawRobotX() {
+        return joyYInverted ? getY() : -getY();
     }
 
     /**
@@ -64,7 +137,15 @@ public class DriveJoystick extends CommandJoystick implements IDriveHID {
      */
     @Override
     public double getRobotY() {
-        return joyXInverted ? ExtendedMath.deadband(getX(), deadband) : ExtendedMath.deadband(-getX(), deadband);
+        return ExtendedMath.deadband(getRawRobotY(), deadband);
+    }
+
+    /**
+     * @return The Y-axis (-1.0 to +1.0) using the robot-coordinate system, without the deadband.
+     */
+    @Override
+    public double getRawRobotY() {
+        return joyXInverted ? getX() : -getX();
     }
 
     /**
@@ -72,7 +153,15 @@ public class DriveJoystick extends CommandJoystick implements IDriveHID {
      */
     @Override
     public double getRobotTwist() {
-        return joyTwistInverted ? ExtendedMath.deadband(getTwist(), deadband) : ExtendedMath.deadband(-getTwist(), deadband);
+        return ExtendedMath.deadband(getRawRobotTwist(), deadband);
+    }
+
+    /**
+     * @return The Twist-axis (-1.0 to +1.0) using the robot-coordinate system, without the deadband.
+     */
+    @Override
+    public double getRawRobotTwist() {
+        return joyTwistInverted ? getTwist() : -getTwist();
     }
 
     @Override
@@ -85,6 +174,11 @@ public class DriveJoystick extends CommandJoystick implements IDriveHID {
         this.deadband = deadband;
     }
 
+    @Override
+    public HIDSnapshot getSnapshot() {
+        return snapshot;
+    }
+
     @Override
     public boolean isJoyXInverted() {
         return joyXInverted;
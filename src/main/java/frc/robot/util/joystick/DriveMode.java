@@ -1,5 +1,7 @@
 package frc.robot.util.joystick;
 
+import static frc.robot.Constants.Control.*;
+
 public class DriveMode {
     public static final IDriveMode LINEAR_MAP = new IDriveMode() {
         @Override public double getX(double x) { return x; }
@@ -21,4 +23,35 @@ public class DriveMode {
         @Override public double getTwist(double twist) { return SMOOTH_MAP.getTwist(twist)/2;}
         @Override public String getName() { return "Smooth Limit"; }
     };
+
+    // Lookup table modes, with a radial deadband and slew rate limiting. Cubic matches SMOOTH_MAP's curve.
+    public static final LookupTableDriveMode CUBIC = lookupTable("Cubic", ResponseCurve.power(3));
+
+    public static final LookupTableDriveMode EXPO = lookupTable("Expo", ResponseCurve.expo(DRIVE_EXPO));
+
+    // Gentle for the first half of the stick for lining up, then ramps to full speed.
+    public static final LookupTableDriveMode PRECISION = lookupTable("Precision", ResponseCurve.piecewise(
+            new double[]{0.5, 0.15},
+            new double[]{0.9, 0.6},
+            new double[]{1, 1}
+    ));
+
+    public static final LookupTableDriveMode CUSTOM = lookupTable("Custom", ResponseCurve.points(
+            new double[]{0.25, 0.05},
+            new double[]{0.5, 0.2},
+            new double[]{0.75, 0.5},
+            new double[]{1, 1}
+    ));
+
+    public static final LookupTableDriveMode CUBIC_LIMIT = lookupTable("Cubic Limit", ResponseCurve.power(3))
+            .setScale(0.5, 0.5);
+
+    /** Every drive mode, in the order shown in the chooser. */
+    public static final IDriveMode[] MODES = {
+            CUBIC, EXPO, PRECISION, CUSTOM, CUBIC_LIMIT, LINEAR_MAP, SMOOTH_MAP, SMOOTH_LIMIT_MAP
+    };
+
+    private static LookupTableDriveMode lookupTable(String name, ResponseCurve curve) {
+        return new LookupTableDriveMode(name, curve, curve, DRIVE_DEADBAND, TRANSLATION_SLEW_RATE, ROTATION_SLEW_RATE);
+    }
 }
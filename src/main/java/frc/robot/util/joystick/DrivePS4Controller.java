@@ -1,6 +1,9 @@
 package frc.robot.util.joystick;
 
+import edu.wpi.first.wpilibj.PS4Controller;
+import edu.wpi.first.wpilibj.event.EventLoop;
 import edu.wpi.first.wpilibj2.command.button.CommandPS4Controller;
+import edu.wpi.first.wpilibj2.command.button.Trigger;
 import frc.robot.util.math.ExtendedMath;
 
 public class DrivePS4Controller extends CommandPS4Controller implements IDriveHID {
@@ -8,6 +11,8 @@ public class DrivePS4Controller extends CommandPS4Controller implements IDriveHI
     private final boolean joyYInverted;
     private final boolean joyTwistInverted;
     private double deadband;
+    // Every axis and button is read from here, so one loop only ever sees one sample of the controller.
+    private final HIDSnapshot snapshot = HIDSnapshot.forPort(getHID().getPort());
 
     /**
      * Constructs a {@link DrivePS4Controller}
@@ -51,12 +56,145 @@ public class DrivePS4Controller extends CommandPS4Controller implements IDriveHI
         this.deadband = DEFAULT_DEADBAND;
     }
 
+    @Override
+    public double getRawAxis(int axis) {
+        return snapshot.getAxis(axis);
+    }
+
+    @Override
+    public Trigger button(int button, EventLoop loop) {
+        return snapshot.button(button, loop);
+    }
+
+    @Override
+    public Trigger pov(int pov, int angle, EventLoop loop) {
+        return snapshot.pov(pov, angle, loop);
+    }
+
+    @Override
+    public Trigger axisLessThan(int axis, double threshold, EventLoop loop) {
+        return snapshot.axisLessThan(axis, threshold, loop);
+    }
+
+    @Override
+    public Trigger axisGreaterThan(int axis, double threshold, EventLoop loop) {
+        return snapshot.axisGreaterThan(axis, threshold, loop);
+    }
+
+    @Override
+    public double getLeftX() {
+        return snapshot.getAxis(PS4Controller.Axis.kLeftX.value);
+    }
+
+    @Override
+    public double getRightX() {
+        return snapshot.getAxis(PS4Controller.Axis.kRightX.value);
+    }
+
+    @Override
+    public double getLeftY() {
+        return snapshot.getAxis(PS4Controller.Axis.kLeftY.value);
+    }
+
+    @Override
+    public double getRightY() {
+        return snapshot.getAxis(PS4Controller.Axis.kRightY.value);
+    }
+
+    @Override
+    public double getL2Axis() {
+        return snapshot.getAxis(PS4Controller.Axis.kL2.value);
+    }
+
+    @Override
+    public double getR2Axis() {
+        return snapshot.getAxis(PS4Controller.Axis.kR2.value);
+    }
+
+    @Override
+    public Trigger L2(EventLoop loop) {
+        return button(PS4Controller.Button.kL2.value, loop);
+    }
+
+    @Override
+    public Trigger R2(EventLoop loop) {
+        return button(PS4Controller.Button.kR2.value, loop);
+    }
+
+    @Override
+    public Trigger L1(EventLoop loop) {
+        return button(PS4Controller.Button.kL1.value, loop);
+    }
+
+    @Override
+    public Trigger R1(EventLoop loop) {
+        return button(PS4Controller.Button.kR1.value, loop);
+    }
+
+    @Override
+    public Trigger L3(EventLoop loop) {
+        return button(PS4Controller.Button.kL3.value, loop);
+    }
+
+    @Override
+    public Trigger R3(EventLoop loop) {
+        return button(PS4Controller.Button.kR3.value, loop);
+    }
+
+    @Override
+    public Trigger square(EventLoop loop) {
+        return button(PS4Controller.Button.kSquare.value, loop);
+    }
+
+    @Override
+    public Trigger cross(EventLoop loop) {
+        return button(PS4Controller.Button.kCross.value, loop);
+    }
+
+    @Override
+    public Trigger triangle(EventLoop loop) {
+        return button(PS4Controller.Button.kTriangle.value, loop);
+    }
+
+    @Override
+    public Trigger circle(EventLoop loop) {
+        return button(PS4Controller.Button.kCircle.value, loop);
+    }
+
+    @Override
+    public Trigger share(EventLoop loop) {
+        return button(PS4Controller.Button.kShare.value, loop);
+    }
+
+    @Override
+    public Trigger PS(EventLoop loop) {
+        return button(PS4Controller.Button.kPS.value, loop);
+    }
+
+    @Override
+    public Trigger options(EventLoop loop) {
+        return button(PS4Controller.Button.kOptions.value, loop);
+    }
+
+    @Override
+    public Trigger touchpad(EventLoop loop) {
+        return button(PS4Controller.Button.kTouchpad.value, loop);
+    }
+
     /**
      * @return The X-axis (-1.0 to +1.0) using the robot-coordinate system. (+X forward, +Y left)
      */
     @Override
     public double getRobotX() {
-        return joyYInverted ? ExtendedMath.deadband(getLeftY(), deadband) : ExtendedMath.deadband(-getLeftY(), deadband);
+        return ExtendedMath.deadband(getRawRobotX(), deadband);
+    }
+
+    /**
+     * @return The X-axis (-1.0 to +1.0) using the robot-coordinate system, without the deadband.
+     */
+    @Override
+    public double getRawRobotX() {
+        return joyYInverted ? getLeftY() : -getLeftY();
     }
 
     /**
@@ -64,7 +202,15 @@ public class DrivePS4Controller extends CommandPS4Controller implements IDriveHI
      */
     @Override
     public double getRobotY() {
-        return joyXInverted ? ExtendedMath.deadband(getLeftX(), deadband) : ExtendedMath.deadband(-getLeftX(), deadband);
+        return ExtendedMath.deadband(getRawRobotY(), deadband);
+    }
+
+    /**
+     * @return The Y-axis (-1.0 to +1.0) using the robot-coordinate system, without the deadband.
+     */
+    @Override
+    public double getRawRobotY() {
+        return joyXInverted ? getLeftX() : -getLeftX();
     }
 
     /**
@@ -72,7 +218,15 @@ public class DrivePS4Controller extends CommandPS4Controller implements IDriveHI
      */
     @Override
     public double getRobotTwist() {
-        return joyTwistInverted ? ExtendedMath.deadband(getRightX(), deadband) : ExtendedMath.deadband(-getRightX(), deadband);
+        return ExtendedMath.deadband(getRawRobotTwist(), deadband);
+    }
+
+    /**
+     * @return The Twist-axis (-1.0 to +1.0) using the robot-coordinate system, without the deadband.
+     */
+    @Override
+    public double getRawRobotTwist() {
+        return joyTwistInverted ? getRightX() : -getRightX();
     }
 
     @Override
@@ -85,6 +239,11 @@ public class DrivePS4Controller extends CommandPS4Controller implements IDriveHI
         this.deadband = deadband;
     }
 
+    @Override
+    public HIDSnapshot getSnapshot() {
+        return snapshot;
+    }
+
     @Override
     public boolean isJoyXInverted() {
         return joyXInverted;
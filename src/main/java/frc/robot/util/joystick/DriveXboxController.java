@@ -1,6 +1,9 @@
 package frc.robot.util.joystick;
 
+import edu.wpi.first.wpilibj.XboxController;
+import edu.wpi.first.wpilibj.event.EventLoop;
 import edu.wpi.first.wpilibj2.command.button.CommandXboxController;
+import edu.wpi.first.wpilibj2.command.button.Trigger;
 import frc.robot.util.math.ExtendedMath;
 
 public class DriveXboxController extends CommandXboxController implements IDriveHID {
@@ -8,6 +11,8 @@ public class DriveXboxController extends CommandXboxController implements IDrive
     private final boolean joyYInverted;
     private final boolean joyTwistInverted;
     private double deadband;
+    // Every axis and button is read from here, so one loop only ever sees one sample of the controller.
+    private final HIDSnapshot snapshot = HIDSnapshot.forPort(getHID().getPort());
 
     /**
      * Constructs a {@link DriveXboxController}
@@ -51,12 +56,135 @@ public class DriveXboxController extends CommandXboxController implements IDrive
         this.deadband = DEFAULT_DEADBAND;
     }
 
+    @Override
+    public double getRawAxis(int axis) {
+        return snapshot.getAxis(axis);
+    }
+
+    @Override
+    public Trigger button(int button, EventLoop loop) {
+        return snapshot.button(button, loop);
+    }
+
+    @Override
+    public Trigger pov(int pov, int angle, EventLoop loop) {
+        return snapshot.pov(pov, angle, loop);
+    }
+
+    @Override
+    public Trigger axisLessThan(int axis, double threshold, EventLoop loop) {
+        return snapshot.axisLessThan(axis, threshold, loop);
+    }
+
+    @Override
+    public Trigger axisGreaterThan(int axis, double threshold, EventLoop loop) {
+        return snapshot.axisGreaterThan(axis, threshold, loop);
+    }
+
+    @Override
+    public double getLeftX() {
+        return snapshot.getAxis(XboxController.Axis.kLeftX.value);
+    }
+
+    @Override
+    public double getRightX() {
+        return snapshot.getAxis(XboxController.Axis.kRightX.value);
+    }
+
+    @Override
+    public double getLeftY() {
+        return snapshot.getAxis(XboxController.Axis.kLeftY.value);
+    }
+
+    @Override
+    public double getRightY() {
+        return snapshot.getAxis(XboxController.Axis.kRightY.value);
+    }
+
+    @Override
+    public double getLeftTriggerAxis() {
+        return snapshot.getAxis(XboxController.Axis.kLeftTrigger.value);
+    }
+
+    @Override
+    public double getRightTriggerAxis() {
+        return snapshot.getAxis(XboxController.Axis.kRightTrigger.value);
+    }
+
+    @Override
+    public Trigger a(EventLoop loop) {
+        return button(XboxController.Button.kA.value, loop);
+    }
+
+    @Override
+    public Trigger b(EventLoop loop) {
+        return button(XboxController.Button.kB.value, loop);
+    }
+
+    @Override
+    public Trigger x(EventLoop loop) {
+        return button(XboxController.Button.kX.value, loop);
+    }
+
+    @Override
+    public Trigger y(EventLoop loop) {
+        return button(XboxController.Button.kY.value, loop);
+    }
+
+    @Override
+    public Trigger leftBumper(EventLoop loop) {
+        return button(XboxController.Button.kLeftBumper.value, loop);
+    }
+
+    @Override
+    public Trigger rightBumper(EventLoop loop) {
+        return button(XboxController.Button.kRightBumper.value, loop);
+    }
+
+    @Override
+    public Trigger leftStick(EventLoop loop) {
+        return button(XboxController.Button.kLeftStick.value, loop);
+    }
+
+    @Override
+    public Trigger rightStick(EventLoop loop) {
+        return button(XboxController.Button.kRightStick.value, loop);
+    }
+
+    @Override
+    public Trigger back(EventLoop loop) {
+        return button(XboxController.Button.kBack.value, loop);
+    }
+
+    @Override
+    public Trigger start(EventLoop loop) {
+        return button(XboxController.Button.kStart.value, loop);
+    }
+
+    @Override
+    public Trigger leftTrigger(double threshold, EventLoop loop) {
+        return axisGreaterThan(XboxController.Axis.kLeftTrigger.value, threshold, loop);
+    }
+
+    @Override
+    public Trigger rightTrigger(double threshold, EventLoop loop) {
+        return axisGreaterThan(XboxController.Axis.kRightTrigger.value, threshold, loop);
+    }
+
     /**
      * @return The X-axis (-1.0 to +1.0) using the robot-coordinate system. (+X forward, +Y left)
      */
     @Override
     public double getRobotX() {
-        return joyYInverted ? ExtendedMath.deadband(getLeftY(), deadband) : ExtendedMath.deadband(-getLeftY(), deadband);
+        return ExtendedMath.deadband(getRawRobotX(), deadband);
+    }
+
+    /**
+     * @return The X-axis (-1.0 to +1.0) using the robot-coordinate system, without the deadband.
+     */
+    @Override
+    public double getRawRobotX() {
+        return joyYInverted ? getLeftY() : -getLeftY();
     }
 
     /**
@@ -64,7 +192,15 @@ public class DriveXboxController extends CommandXboxController implements IDrive
      */
     @Override
     public double getRobotY() {
-        return joyXInverted ? ExtendedMath.deadband(getLeftX(), deadband) : ExtendedMath.deadband(-getLeftX(), deadband);
+        return ExtendedMath.deadband(getRawRobotY(), deadband);
+    }
+
+    /**
+     * @return The Y-axis (-1.0 to +1.0) using the robot-coordinate system, without the deadband.
+     */
+    @Override
+    public double getRawRobotY() {
+        return joyXInverted ? getLeftX() : -getLeftX();
     }
 
     /**
@@ -72,7 +208,15 @@ public class DriveXboxController extends CommandXboxController implements IDrive
      */
     @Override
     public double getRobotTwist() {
-        return joyTwistInverted ? ExtendedMath.deadband(getRightX(), deadband) : ExtendedMath.deadband(-getRightX(), deadband);
+        return ExtendedMath.deadband(getRawRobotTwist(), deadband);
+    }
+
+    /**
+     * @return The Twist-axis (-1.0 to +1.0) using the robot-coordinate system, without the deadband.
+     */
+    @Override
+    public double getRawRobotTwist() {
+        return joyTwistInverted ? getRightX() : -getRightX();
     }
 
     @Override
@@ -85,6 +229,11 @@ public class DriveXboxController extends CommandXboxController implements IDrive
         this.deadband = deadband;
     }
 
+    @Override
+    public HIDSnapshot getSnapshot() {
+        return snapshot;
+    }
+
     @Override
     public boolean isJoyXInverted() {
         return joyXInverted;
@@ -0,0 +1,132 @@
+package frc.robot.util.joystick;
+
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj.event.EventLoop;
+import edu.wpi.first.wpilibj2.command.button.Trigger;
+import frc.robot.util.telemetry.DoubleSignal;
+import frc.robot.util.telemetry.Telemetry;
+
+import static frc.robot.Constants.TelemetryValues.DEBUG_DECIMATION;
+
+/**
+ * Every axis, button and POV of one HID, captured once per loop into primitives. {@link #captureAll()} is
+ * called at the start of the loop, and every reader (drive modes, triggers, default commands) sees the same
+ * values for the rest of it instead of going back to the {@link DriverStation} on every call.
+ * <p>
+ * The time the loop first saw each Driver Station packet is recorded as well, so the latency from a packet
+ * arriving to the outputs it caused being sent can be measured with {@link #markOutputsSent()}.
+ */
+public class HIDSnapshot {
+    private static final int MAX_AXES = 12;
+    private static final int MAX_POVS = 12;
+    private static final HIDSnapshot[] SNAPSHOTS = new HIDSnapshot[DriverStation.kJoystickPorts];
+
+    private static double packetTimestamp;
+    private static final DoubleSignal latencySignal = Telemetry.number("Input Latency (ms)", DEBUG_DECIMATION);
+
+    private final int port;
+    private final double[] axes = new double[MAX_AXES];
+    private final int[] povs = new int[MAX_POVS];
+    private int axisCount;
+    private int povCount;
+    private int buttons;
+    private int buttonCount;
+    private boolean connected;
+
+    private HIDSnapshot(int port) {
+        this.port = port;
+    }
+
+    /**
+     * @param port The USB port ID of the HID.
+     * @return The {@link HIDSnapshot} of the port, shared by everything reading it.
+     */
+    public static synchronized HIDSnapshot forPort(int port) {
+        if (SNAPSHOTS[port] == null) {
+            SNAPSHOTS[port] = new HIDSnapshot(port);
+        }
+        return SNAPSHOTS[port];
+    }
+
+    /** Captures every HID which has a snapshot. Call this once, at the start of the loop. */
+    public static void captureAll() {
+        if (DriverStation.isNewControlData()) {
+            packetTimestamp = Timer.getFPGATimestamp();
+        }
+
+        for (HIDSnapshot snapshot : SNAPSHOTS) {
+            if (snapshot != null) snapshot.capture();
+        }
+    }
+
+    /** @return The FPGA timestamp (in seconds) of the loop which first saw the latest Driver Station packet. */
+    public static double getPacketTimestamp() {
+        return packetTimestamp;
+    }
+
+    /** Publishes the time from the latest packet being captured to now. Call this after the outputs are sent. */
+    public static void markOutputsSent() {
+        latencySignal.set((Timer.getFPGATimestamp() - packetTimestamp) * 1000);
+    }
+
+    private void capture() {
+        connected = DriverStation.isJoystickConnected(port);
+
+        axisCount = Math.min(DriverStation.getStickAxisCount(port), MAX_AXES);
+        for (int i = 0; i < axisCount; i++) {
+            axes[i] = DriverStation.getStickAxis(port, i);
+        }
+
+        povCount = Math.min(DriverStation.getStickPOVCount(port), MAX_POVS);
+        for (int i = 0; i < povCount; i++) {
+            povs[i] = DriverStation.getStickPOV(port, i);
+        }
+
+        buttonCount = DriverStation.getStickButtonCount(port);
+        buttons = DriverStation.getStickButtons(port);
+    }
+
+    public int getPort() { return port; }
+    public boolean isConnected() { return connected; }
+
+    /**
+     * @param axis The index of the axis.
+     * @return The value of the axis, or 0 if the HID does not have it.
+     */
+    public double getAxis(int axis) {
+        return axis < axisCount ? axes[axis] : 0;
+    }
+
+    /**
+     * @param button The button number (starting at 1).
+     * @return If the button is pressed, or false if the HID does not have it.
+     */
+    public boolean getButton(int button) {
+        return button > 0 && button <= buttonCount && (buttons & (1 << (button - 1))) != 0;
+    }
+
+    /**
+     * @param pov The index of the POV.
+     * @return The angle of the POV in degrees, or -1 if it is not pressed or the HID does not have it.
+     */
+    public int getPOV(int pov) {
+        return pov < povCount ? povs[pov] : -1;
+    }
+
+    public Trigger button(int button, EventLoop loop) {
+        return new Trigger(loop, () -> getButton(button));
+    }
+
+    public Trigger pov(int pov, int angle, EventLoop loop) {
+        return new Trigger(loop, () -> getPOV(pov) == angle);
+    }
+
+    public Trigger axisGreaterThan(int axis, double threshold, EventLoop loop) {
+        return new Trigger(loop, () -> getAxis(axis) > threshold);
+    }
+
+    public Trigger axisLessThan(int axis, double threshold, EventLoop loop) {
+        return new Trigger(loop, () -> getAxis(axis) < threshold);
+    }
+}
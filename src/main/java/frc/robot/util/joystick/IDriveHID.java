@@ -6,9 +6,17 @@ public interface IDriveHID {
     double getRobotX();
     double getRobotY();
     double getRobotTwist();
+
+    // The same axes without the deadband, for drive modes which apply their own (see IDriveMode#appliesDeadband).
+    double getRawRobotX();
+    double getRawRobotY();
+    double getRawRobotTwist();
     double getDeadband();
     void setDeadband(double deadband);
 
+    /** @return The {@link HIDSnapshot} every axis and button of the HID is read from. */
+    HIDSnapshot getSnapshot();
+
     boolean isJoyXInverted();
     boolean isJoyYInverted();
     boolean isJoyTwistInverted();
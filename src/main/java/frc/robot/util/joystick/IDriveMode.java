@@ -5,4 +5,28 @@ public interface IDriveMode {
     double getY(double y);
     double getTwist(double twist);
     String getName();
+
+    /**
+     * Maps all three axes at once, so a mode can treat X and Y together (e.g. with a radial deadband).
+     * By default each axis is mapped on its own.
+     *
+     * @param x     The X-axis input (-1.0 to +1.0).
+     * @param y     The Y-axis input (-1.0 to +1.0).
+     * @param twist The twist-axis input (-1.0 to +1.0).
+     * @param out   An array of at least 3 values to write the mapped [x, y, twist] into.
+     */
+    default void apply(double x, double y, double twist, double[] out) {
+        out[0] = getX(x);
+        out[1] = getY(y);
+        out[2] = getTwist(twist);
+    }
+
+    /**
+     * @return If {@link #apply(double, double, double, double[])} applies its own deadband, so it should be
+     * given the raw axes of the HID instead of ones which already had the HID's per-axis deadband applied.
+     */
+    default boolean appliesDeadband() { return false; }
+
+    /** Clears any state kept between calls, such as slew rate limiting. Called when switching to this mode. */
+    default void reset() {}
 }
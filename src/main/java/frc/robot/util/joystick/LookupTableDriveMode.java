@@ -0,0 +1,121 @@
+package frc.robot.util.joystick;
+
+import edu.wpi.first.math.filter.SlewRateLimiter;
+
+/**
+ * An {@link IDriveMode} backed by {@link ResponseCurve} lookup tables, with a radial deadband on the
+ * translation axes and slew rate limiting on every axis.
+ * <p>
+ * The deadband is applied to the length of the (X, Y) vector instead of each axis, so small diagonal inputs
+ * are not snapped onto an axis, and the output is rescaled so it rises smoothly from zero at the edge of the
+ * deadband. The translation curve is applied to the length as well, keeping the direction of the stick. It is
+ * given the raw axes (see {@link #appliesDeadband()}), so the HID's per-axis deadband does not stack on top.
+ * <p>
+ * Curves are set by swapping the reference to a prebuilt {@link ResponseCurve}, so they can be changed while
+ * driving without allocating.
+ */
+public class LookupTableDriveMode implements IDriveMode {
+    private final String name;
+    private final double deadband;
+    private final SlewRateLimiter xLimiter, yLimiter, twistLimiter;
+
+    private ResponseCurve translationCurve;
+    private ResponseCurve rotationCurve;
+    private double translationScale = 1;
+    private double rotationScale = 1;
+
+    /**
+     * @param name                The name shown in the drive mode chooser.
+     * @param translationCurve    The {@link ResponseCurve} applied to the length of the (X, Y) input.
+     * @param rotationCurve       The {@link ResponseCurve} applied to the twist input.
+     * @param deadband            The radial deadband of the translation, and the deadband of the twist.
+     * @param translationSlewRate The maximum change of X and Y per second (1 / seconds from 0 to full).
+     * @param rotationSlewRate    The maximum change of the twist per second.
+     */
+    public LookupTableDriveMode(String name, ResponseCurve translationCurve, ResponseCurve rotationCurve,
+                                double deadband, double translationSlewRate, double rotationSlewRate) {
+        this.name = name;
+        this.translationCurve = translationCurve;
+        this.rotationCurve = rotationCurve;
+        this.deadband = deadband;
+        this.xLimiter = new SlewRateLimiter(translationSlewRate);
+        this.yLimiter = new SlewRateLimiter(translationSlewRate);
+        this.twistLimiter = new SlewRateLimiter(rotationSlewRate);
+    }
+
+    public LookupTableDriveMode setTranslationCurve(ResponseCurve curve) {
+        this.translationCurve = curve;
+        return this;
+    }
+
+    public LookupTableDriveMode setRotationCurve(ResponseCurve curve) {
+        this.rotationCurve = curve;
+        return this;
+    }
+
+    /**
+     * Scales the output of the curves, e.g. 0.5 for a slow mode.
+     *
+     * @param translation The scale of X and Y.
+     * @param rotation    The scale of the twist.
+     * @return The {@link LookupTableDriveMode} instance.
+     */
+    public LookupTableDriveMode setScale(double translation, double rotation) {
+        this.translationScale = translation;
+        this.rotationScale = rotation;
+        return this;
+    }
+
+    public ResponseCurve getTranslationCurve() { return translationCurve; }
+    public ResponseCurve getRotationCurve() { return rotationCurve; }
+
+    /** Rescales an input so it goes from 0 at the edge of the deadband to 1 at full input. */
+    private double removeDeadband(double magnitude) {
+        return magnitude <= deadband ? 0 : (magnitude - deadband) / (1 - deadband);
+    }
+
+    // Single axis mappings, without the radial deadband or slew rate limiting.
+    @Override public double getX(double x) { return translate(x); }
+    @Override public double getY(double y) { return translate(y); }
+    @Override public double getTwist(double twist) { return rotate(twist); }
+
+    private double translate(double value) {
+        return Math.copySign(translationCurve.evaluate(removeDeadband(Math.abs(value))), value) * translationScale;
+    }
+
+    private double rotate(double value) {
+        return Math.copySign(rotationCurve.evaluate(removeDeadband(Math.abs(value))), value) * rotationScale;
+    }
+
+    @Override
+    public void apply(double x, double y, double twist, double[] out) {
+        double magnitude = Math.hypot(x, y);
+        double mappedX = 0, mappedY = 0;
+        if (magnitude > deadband) {
+            double scale = translationCurve.evaluate(removeDeadband(Math.min(magnitude, 1))) * translationScale / magnitude;
+            mappedX = x * scale;
+            mappedY = y * scale;
+        }
+
+        out[0] = xLimiter.calculate(mappedX);
+        out[1] = yLimiter.calculate(mappedY);
+        out[2] = twistLimiter.calculate(rotate(twist));
+    }
+
+    @Override
+    public boolean appliesDeadband() {
+        return true;
+    }
+
+    @Override
+    public void reset() {
+        xLimiter.reset(0);
+        yLimiter.reset(0);
+        twistLimiter.reset(0);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+}
@@ -0,0 +1,163 @@
+package frc.robot.util.joystick;
+
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * A joystick response curve, precomputed into an evenly spaced lookup table over [0, 1] and linearly
+ * interpolated. Curves are odd-symmetric (the output of -x is minus the output of x), so only the positive
+ * half is stored. Evaluating a curve costs the same no matter how it was defined, and never allocates.
+ */
+public class ResponseCurve {
+    private static final int DEFAULT_SIZE = 256;
+
+    private final double[] table;
+    private final int segments;
+
+    private ResponseCurve(DoubleUnaryOperator function, int size) {
+        this.table = new double[size];
+        this.segments = size - 1;
+        for (int i = 0; i < size; i++) {
+            table[i] = function.applyAsDouble((double) i / segments);
+        }
+    }
+
+    /**
+     * @param function The curve over [0, 1], which should map 0 to 0 and 1 to at most 1.
+     * @param size     The amount of points in the table.
+     * @return A {@link ResponseCurve} sampled from the function.
+     */
+    public static ResponseCurve of(DoubleUnaryOperator function, int size) {
+        if (size < 2) throw new IllegalArgumentException("A curve needs at least 2 points");
+        return new ResponseCurve(function, size);
+    }
+
+    public static ResponseCurve of(DoubleUnaryOperator function) { return of(function, DEFAULT_SIZE); }
+
+    /** @return A curve which passes the input through unchanged. */
+    public static ResponseCurve linear() {
+        return of(x -> x, 2);
+    }
+
+    /**
+     * @param exponent The power the input is raised to, e.g. 3 for a cubic curve.
+     * @return A power curve.
+     */
+    public static ResponseCurve power(double exponent) {
+        return of(x -> Math.pow(x, exponent));
+    }
+
+    /**
+     * A blend between a linear and a cubic curve, as used by RC transmitters.
+     *
+     * @param expo How much of the cubic curve is used, from 0 (linear) to 1 (cubic).
+     * @return An expo curve.
+     */
+    public static ResponseCurve expo(double expo) {
+        return of(x -> (1 - expo) * x + expo * x * x * x);
+    }
+
+    /**
+     * A curve made of straight segments between breakpoints. The curve starts at (0, 0), and is flat after
+     * the last breakpoint.
+     *
+     * @param points The breakpoints as {x, y} pairs, in increasing x.
+     * @return A piecewise linear curve.
+     */
+    public static ResponseCurve piecewise(double[]... points) {
+        double[] xs = new double[points.length + 1];
+        double[] ys = new double[points.length + 1];
+        for (int i = 0; i < points.length; i++) {
+            xs[i + 1] = points[i][0];
+            ys[i + 1] = points[i][1];
+        }
+        checkIncreasing(xs);
+
+        return of(x -> {
+            int i = segmentOf(xs, x);
+            if (i >= xs.length - 1) return ys[ys.length - 1];
+            double t = (x - xs[i]) / (xs[i + 1] - xs[i]);
+            return ys[i] + (ys[i + 1] - ys[i]) * t;
+        });
+    }
+
+    /**
+     * A smooth curve through a custom set of points, using a monotone cubic (Fritsch-Carlson) spline so the
+     * curve never overshoots between the points. The curve starts at (0, 0), and is flat after the last point.
+     *
+     * @param points The points as {x, y} pairs, in increasing x and y.
+     * @return A smooth curve through the points.
+     */
+    public static ResponseCurve points(double[]... points) {
+        int n = points.length + 1;
+        double[] xs = new double[n];
+        double[] ys = new double[n];
+        for (int i = 0; i < points.length; i++) {
+            xs[i + 1] = points[i][0];
+            ys[i + 1] = points[i][1];
+        }
+        checkIncreasing(xs);
+
+        double[] slopes = new double[n - 1];
+        for (int i = 0; i < n - 1; i++) {
+            slopes[i] = (ys[i + 1] - ys[i]) / (xs[i + 1] - xs[i]);
+        }
+
+        double[] tangents = new double[n];
+        tangents[0] = slopes[0];
+        tangents[n - 1] = slopes[n - 2];
+        for (int i = 1; i < n - 1; i++) {
+            tangents[i] = slopes[i - 1] * slopes[i] <= 0 ? 0 : (slopes[i - 1] + slopes[i]) / 2;
+        }
+        for (int i = 0; i < n - 1; i++) {
+            if (slopes[i] == 0) {
+                tangents[i] = 0;
+                tangents[i + 1] = 0;
+                continue;
+            }
+            double a = tangents[i] / slopes[i], b = tangents[i + 1] / slopes[i];
+            double h = a * a + b * b;
+            if (h > 9) {
+                double scale = 3 / Math.sqrt(h);
+                tangents[i] = scale * a * slopes[i];
+                tangents[i + 1] = scale * b * slopes[i];
+            }
+        }
+
+        return of(x -> {
+            int i = segmentOf(xs, x);
+            if (i >= n - 1) return ys[n - 1];
+
+            double width = xs[i + 1] - xs[i];
+            double t = (x - xs[i]) / width;
+            double t2 = t * t, t3 = t2 * t;
+            return (2 * t3 - 3 * t2 + 1) * ys[i]
+                    + (t3 - 2 * t2 + t) * width * tangents[i]
+                    + (-2 * t3 + 3 * t2) * ys[i + 1]
+                    + (t3 - t2) * width * tangents[i + 1];
+        });
+    }
+
+    private static void checkIncreasing(double[] xs) {
+        for (int i = 1; i < xs.length; i++) {
+            if (xs[i] <= xs[i - 1]) throw new IllegalArgumentException("Curve points must be in increasing x");
+        }
+    }
+
+    /** @return The index of the segment containing x, or the last point if x is past every point. */
+    private static int segmentOf(double[] xs, double x) {
+        int i = 0;
+        while (i < xs.length - 1 && x > xs[i + 1]) i++;
+        return i;
+    }
+
+    /**
+     * @param x The input, from -1 to 1. Values outside are clamped.
+     * @return The output of the curve.
+     */
+    public double evaluate(double x) {
+        double magnitude = Math.min(Math.abs(x), 1) * segments;
+        int i = (int) magnitude;
+        double value = i >= segments ? table[segments] : table[i] + (table[i + 1] - table[i]) * (magnitude - i);
+        return x < 0 ? -value : value;
+    }
+}
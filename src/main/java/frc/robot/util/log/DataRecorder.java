@@ -0,0 +1,157 @@
+package frc.robot.util.log;
+
+import edu.wpi.first.util.datalog.DataLog;
+import edu.wpi.first.util.datalog.DoubleArrayLogEntry;
+import edu.wpi.first.wpilibj.DataLogManager;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.RobotController;
+
+import static frc.robot.Constants.Logging.*;
+
+/**
+ * A {@link DataRecorder} records fixed-size binary records into a WPILOG file using {@link DataLogManager},
+ * which writes to a USB drive when one is plugged into the roboRIO, and <code>/home/lvuser/logs</code>
+ * otherwise.
+ * <p>
+ * Loop code never touches the {@link DataLog} directly. Each {@link LogChannel#append()} copies its values and
+ * the FPGA timestamp into a preallocated ring, and a low priority background thread drains the ring into the
+ * log. If the flush thread falls behind and the ring fills up, new records are dropped (and counted) instead
+ * of blocking the robot loop.
+ * <p>
+ * Records must only be appended from the main robot thread.
+ */
+public class DataRecorder {
+    private static final DataRecorder INSTANCE = new DataRecorder();
+
+    private final LogChannel[] channels = new LogChannel[LOG_MAX_CHANNELS];
+    private final DoubleArrayLogEntry[] entries = new DoubleArrayLogEntry[LOG_MAX_CHANNELS];
+    private volatile int channelCount = 0;
+
+    // The ring of records, each slot holds a channel, a timestamp and up to LOG_MAX_WIDTH values.
+    private final int[] recordChannels = new int[LOG_BUFFER_SIZE];
+    private final long[] recordTimestamps = new long[LOG_BUFFER_SIZE];
+    private final double[] recordValues = new double[LOG_BUFFER_SIZE * LOG_MAX_WIDTH];
+
+    // The amount of records written by the robot loop, and read by the flush thread.
+    private volatile long head = 0;
+    private volatile long tail = 0;
+    private volatile long dropped = 0;
+
+    // Reused by the flush thread for each channel, since log entries need an array of the exact width.
+    private final double[][] flushBuffers = new double[LOG_MAX_CHANNELS][];
+
+    private Thread flushThread;
+    private DataLog log;
+
+    /** @return The {@link DataRecorder} shared by every subsystem. */
+    public static DataRecorder getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Registers a new record type. This should be done once, in a constructor.
+     *
+     * @param name  The name of the entry in the log, such as <code>Swerve/Pose</code>.
+     * @param width The amount of values in each record.
+     * @return The {@link LogChannel} used to append records.
+     */
+    public synchronized LogChannel register(String name, int width) {
+        int id = channelCount;
+        if (id >= LOG_MAX_CHANNELS) {
+            throw new IllegalStateException("Too many log channels, increase Logging.LOG_MAX_CHANNELS");
+        }
+        if (width > LOG_MAX_WIDTH) {
+            throw new IllegalArgumentException("Log channel " + name + " is wider than Logging.LOG_MAX_WIDTH");
+        }
+
+        LogChannel channel = new LogChannel(this, id, name, width);
+        channels[id] = channel;
+        flushBuffers[id] = new double[width];
+
+        // Publishes the new channel to the flush thread.
+        channelCount = id + 1;
+        return channel;
+    }
+
+    /**
+     * Starts the {@link DataLogManager} and the flush thread. Driver Station and joystick data is
+     * recorded into the same log.
+     */
+    public synchronized void start() {
+        if (flushThread != null) return;
+
+        DataLogManager.start();
+        log = DataLogManager.getLog();
+        DriverStation.startDataLog(log);
+
+        flushThread = new Thread(this::runFlush, "DataRecorder");
+        flushThread.setDaemon(true);
+        flushThread.setPriority(Thread.MIN_PRIORITY);
+        flushThread.start();
+    }
+
+    /** @return If the flush thread has been started. */
+    public boolean isRunning() {
+        return flushThread != null;
+    }
+
+    /** @return The amount of records dropped because the ring was full. */
+    public long getDroppedCount() {
+        return dropped;
+    }
+
+    void append(int channel, double[] values) {
+        long next = head;
+        if (next - tail >= LOG_BUFFER_SIZE) {
+            dropped = dropped + 1;
+            return;
+        }
+
+        int slot = (int) (next % LOG_BUFFER_SIZE);
+        recordChannels[slot] = channel;
+        recordTimestamps[slot] = RobotController.getFPGATime();
+        System.arraycopy(values, 0, recordValues, slot * LOG_MAX_WIDTH, values.length);
+
+        // Publishes the slot to the flush thread.
+        head = next + 1;
+    }
+
+    private void runFlush() {
+        long sleepMs = (long) (LOG_FLUSH_PERIOD * 1000);
+
+        while (!Thread.currentThread().isInterrupted()) {
+            flush();
+
+            try {
+                Thread.sleep(sleepMs);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    /** Drains every record written so far into the {@link DataLog}. Only called by the flush thread. */
+    private void flush() {
+        long end = head;
+        for (long i = tail; i < end; i++) {
+            int slot = (int) (i % LOG_BUFFER_SIZE);
+            int channel = recordChannels[slot];
+
+            double[] values = flushBuffers[channel];
+            System.arraycopy(recordValues, slot * LOG_MAX_WIDTH, values, 0, values.length);
+            getEntry(channel).append(values, recordTimestamps[slot]);
+        }
+
+        // Hands the drained slots back to the robot loop.
+        tail = end;
+    }
+
+    private DoubleArrayLogEntry getEntry(int channel) {
+        DoubleArrayLogEntry entry = entries[channel];
+        if (entry == null) {
+            entry = new DoubleArrayLogEntry(log, channels[channel].getName());
+            entries[channel] = entry;
+        }
+        return entry;
+    }
+}
@@ -0,0 +1,48 @@
+package frc.robot.util.log;
+
+/**
+ * A fixed-size record type written to the {@link DataRecorder}. Loop code fills in {@link #values()} and
+ * calls {@link #append()}, which copies the values into the recorder's ring without allocating.
+ */
+public class LogChannel {
+    private final DataRecorder recorder;
+    private final int id;
+    private final String name;
+    private final double[] values;
+
+    LogChannel(DataRecorder recorder, int id, String name, int width) {
+        this.recorder = recorder;
+        this.id = id;
+        this.name = name;
+        this.values = new double[width];
+    }
+
+    /** @return The buffer to write the next record into. Only the main robot thread should write to it. */
+    public double[] values() { return values; }
+
+    /** Copies the current {@link #values()} into the recorder, timestamped with the current FPGA time. */
+    public void append() {
+        recorder.append(id, values);
+    }
+
+    public void append(double a, double b) {
+        values[0] = a;
+        values[1] = b;
+        append();
+    }
+
+    public void append(double a, double b, double c) {
+        values[0] = a;
+        values[1] = b;
+        values[2] = c;
+        append();
+    }
+
+    /** @return The name of the entry in the log. */
+    public String getName() { return name; }
+
+    /** @return The amount of values in each record. */
+    public int getWidth() { return values.length; }
+
+    int getId() { return id; }
+}
@@ -0,0 +1,16 @@
+package frc.robot.util.loop;
+
+/** The phases of every robot loop run by the {@link PhasedLoop}, in the order they run. */
+public enum LoopPhase {
+    /** Reads every input: the sensor snapshot and the controllers. Nothing is calculated or sent. */
+    SENSE,
+    /** Updates everything derived from the inputs, such as the heading and odometry. */
+    ESTIMATE,
+    /**
+     * Runs the {@link edu.wpi.first.wpilibj2.command.CommandScheduler} (buttons, commands and
+     * <code>periodic()</code>), then the controllers, which see every target the commands set this loop.
+     */
+    CONTROL,
+    /** Sends every output calculated this loop. */
+    ACTUATE
+}
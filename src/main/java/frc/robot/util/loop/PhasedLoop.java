@@ -0,0 +1,69 @@
+package frc.robot.util.loop;
+
+import edu.wpi.first.wpilibj2.command.CommandScheduler;
+
+/**
+ * The {@link PhasedLoop} runs every robot loop as a fixed sequence of {@link LoopPhase}s: read the inputs,
+ * update the estimates, run the commands and controllers, then send the outputs.
+ * <p>
+ * The {@link CommandScheduler} alone runs every subsystem's <code>periodic()</code> before the buttons and
+ * commands, so anything a command changes (a new preset, a new drive speed) is only acted on by
+ * <code>periodic()</code> the next loop. Subsystems instead register hooks for the phase each part of their
+ * work belongs to, so a command's target is used by the controllers, and sent, in the same loop it was set.
+ * <p>
+ * Hooks run in the order they were registered within their phase. Like the scheduler, they must only be
+ * registered and run from the main robot thread.
+ */
+public class PhasedLoop {
+    /** The maximum amount of hooks which can be registered in each phase. */
+    public static final int MAX_HOOKS = 32;
+
+    private static final PhasedLoop INSTANCE = new PhasedLoop();
+    private static final LoopPhase[] PHASES = LoopPhase.values();
+
+    private final Runnable[][] hooks = new Runnable[PHASES.length][MAX_HOOKS];
+    private final int[] hookCounts = new int[PHASES.length];
+
+    /** @return The {@link PhasedLoop} shared by every subsystem. */
+    public static PhasedLoop getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Registers a hook to run every loop. This should be done once, in a constructor.
+     *
+     * @param phase The {@link LoopPhase} to run the hook in.
+     * @param hook  The {@link Runnable} to run.
+     */
+    public synchronized void register(LoopPhase phase, Runnable hook) {
+        int index = phase.ordinal();
+        if (hookCounts[index] >= MAX_HOOKS) {
+            throw new IllegalStateException("Too many " + phase + " hooks, increase PhasedLoop.MAX_HOOKS");
+        }
+
+        hooks[index][hookCounts[index]++] = hook;
+    }
+
+    /** Runs one loop, every phase in order. Call this once per loop, from <code>robotPeriodic()</code>. */
+    public void run() {
+        runHooks(LoopPhase.SENSE);
+        runHooks(LoopPhase.ESTIMATE);
+        CommandScheduler.getInstance().run();
+        runHooks(LoopPhase.CONTROL);
+        runHooks(LoopPhase.ACTUATE);
+    }
+
+    /**
+     * Runs the hooks of a single phase, without the rest of the loop. The robot should always use
+     * {@link #run()}, this is for benchmarking one part of the loop.
+     *
+     * @param phase The {@link LoopPhase} to run the hooks of.
+     */
+    public void runHooks(LoopPhase phase) {
+        Runnable[] phaseHooks = hooks[phase.ordinal()];
+        int count = hookCounts[phase.ordinal()];
+        for (int i = 0; i < count; i++) {
+            phaseHooks[i].run();
+        }
+    }
+}
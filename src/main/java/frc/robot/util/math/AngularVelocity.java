@@ -3,17 +3,34 @@ package frc.robot.util.math;
 import edu.wpi.first.math.MathUtil;
 
 public class AngularVelocity implements GetterValue {
+    public static final double RAD_S_PER_RPM = 0.1047198;
+    public static final double RPM_PER_RAD_S = 9.5492968;
+
+    // Conversion factors indexed by [oldUnit.ordinal()][newUnit.ordinal()], so convert() is a single multiply.
+    private static final double[][] FACTORS =
+            new double[AngularVelocityUnit.values().length][AngularVelocityUnit.values().length];
+    private static final int RAD_S = AngularVelocityUnit.RAD_S.ordinal();
+
+    static {
+        FACTORS[AngularVelocityUnit.RPM.ordinal()][RAD_S] = RAD_S_PER_RPM;
+        FACTORS[RAD_S][AngularVelocityUnit.RPM.ordinal()] = RPM_PER_RAD_S;
+
+        for (AngularVelocityUnit unit : AngularVelocityUnit.values()) {
+            FACTORS[unit.ordinal()][unit.ordinal()] = 1;
+        }
+    }
+
     private double radiansPerSecondValue;
 
     private AngularVelocityUnit unit;
 
     public AngularVelocity(double value, AngularVelocityUnit unit) {
-        this.radiansPerSecondValue = value;
+        this.radiansPerSecondValue = radPerSecFrom(value, unit);
         this.unit = unit;
     }
 
     public AngularVelocity setVelocity(double value, AngularVelocityUnit unit) {
-        this.radiansPerSecondValue = convert(value, unit, AngularVelocityUnit.RAD_S);
+        this.radiansPerSecondValue = radPerSecFrom(value, unit);
         this.unit = unit;
         return this;
     }
@@ -31,7 +48,7 @@ public class AngularVelocity implements GetterValue {
         return convert(radiansPerSecondValue, AngularVelocityUnit.RAD_S, this.unit);
     }
 
-    public double toRadPerSec() { return toValue(AngularVelocityUnit.RAD_S); }
+    public double toRadPerSec() { return radiansPerSecondValue; }
     public double toRPM() { return toValue(AngularVelocityUnit.RPM); }
 
     public static AngularVelocity fromValue(double value, AngularVelocityUnit unit) {
@@ -45,22 +62,18 @@ public class AngularVelocity implements GetterValue {
     public static AngularVelocity fromRadPerSec(double value) { return fromValue(value, AngularVelocityUnit.RAD_S); }
     public static AngularVelocity fromRPM(double value) { return fromValue(value, AngularVelocityUnit.RPM); }
 
+    /**
+     * Converts a value to radians/sec without creating an {@link AngularVelocity}.
+     *
+     * @param value The value to convert.
+     * @param unit The {@link AngularVelocityUnit} of the value.
+     * @return The value in radians/sec.
+     */
+    public static double radPerSecFrom(double value, AngularVelocityUnit unit) {
+        return value * FACTORS[unit.ordinal()][RAD_S];
+    }
 
     public static double convert(double value, AngularVelocityUnit oldUnit, AngularVelocityUnit newUnit) {
-        switch (oldUnit) {
-            case RPM: {
-                switch (newUnit) {
-                    case RPM: return value;
-                    case RAD_S: return value * 0.1047198;
-                }
-            }
-            case RAD_S: {
-                switch (newUnit) {
-                    case RPM: return value * 9.5492968;
-                    case RAD_S: return value;
-                }
-            }
-            default: return value;
-        }
+        return value * FACTORS[oldUnit.ordinal()][newUnit.ordinal()];
     }
 }
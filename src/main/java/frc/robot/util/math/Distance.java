@@ -2,16 +2,48 @@ package frc.robot.util.math;
 
 
 public class Distance implements GetterValue {
+    public static final double METERS_PER_INCH = 1 / 39.37;
+    public static final double METERS_PER_FOOT = 1 / 3.281;
+    public static final double METERS_PER_CENTIMETER = 1 / 100.0;
+
+    // Conversion factors indexed by [oldUnit.ordinal()][newUnit.ordinal()], so convert() is a single multiply.
+    private static final double[][] FACTORS = new double[DistanceUnit.values().length][DistanceUnit.values().length];
+
+    private static final int METERS = DistanceUnit.METERS.ordinal();
+
+    static {
+        setFactor(DistanceUnit.FEET, DistanceUnit.INCHES, 12);
+        setFactor(DistanceUnit.FEET, DistanceUnit.METERS, METERS_PER_FOOT);
+        setFactor(DistanceUnit.FEET, DistanceUnit.CENTIMETERS, 30.48);
+        setFactor(DistanceUnit.INCHES, DistanceUnit.FEET, 1 / 12.0);
+        setFactor(DistanceUnit.INCHES, DistanceUnit.METERS, METERS_PER_INCH);
+        setFactor(DistanceUnit.INCHES, DistanceUnit.CENTIMETERS, 2.54);
+        setFactor(DistanceUnit.METERS, DistanceUnit.FEET, 3.281);
+        setFactor(DistanceUnit.METERS, DistanceUnit.INCHES, 39.37);
+        setFactor(DistanceUnit.METERS, DistanceUnit.CENTIMETERS, 100);
+        setFactor(DistanceUnit.CENTIMETERS, DistanceUnit.FEET, 1 / 30.48);
+        setFactor(DistanceUnit.CENTIMETERS, DistanceUnit.INCHES, 1 / 2.54);
+        setFactor(DistanceUnit.CENTIMETERS, DistanceUnit.METERS, METERS_PER_CENTIMETER);
+
+        for (DistanceUnit unit : DistanceUnit.values()) {
+            setFactor(unit, unit, 1); // no change
+        }
+    }
+
+    private static void setFactor(DistanceUnit oldUnit, DistanceUnit newUnit, double factor) {
+        FACTORS[oldUnit.ordinal()][newUnit.ordinal()] = factor;
+    }
+
     private double meterValue;
     private DistanceUnit unit;
 
     public Distance(double value, DistanceUnit unit) {
-        this.meterValue = convert(value, unit, DistanceUnit.METERS);
+        this.meterValue = metersFrom(value, unit);
         this.unit = unit;
     }
 
     public Distance setDistance(double value, DistanceUnit unit) {
-        this.meterValue = convert(value, unit, DistanceUnit.METERS);
+        this.meterValue = metersFrom(value, unit);
         this.unit = unit;
         return this;
     }
@@ -21,15 +53,15 @@ public class Distance implements GetterValue {
     }
 
     public double toValue(DistanceUnit unit) {
-        return convert(meterValue, DistanceUnit.METERS, unit);
+        return metersTo(meterValue, unit);
     }
 
     @Override
     public double toValue() {
-        return convert(meterValue, DistanceUnit.METERS, this.unit);
+        return metersTo(meterValue, this.unit);
     }
 
-    public double toMeters() { return toValue(DistanceUnit.METERS); }
+    public double toMeters() { return meterValue; }
     public double toFeet() { return toValue(DistanceUnit.FEET); }
     public double toInches() { return toValue(DistanceUnit.INCHES); }
     public double toCentimeters() { return toValue(DistanceUnit.CENTIMETERS); }
@@ -40,41 +72,29 @@ public class Distance implements GetterValue {
     public static Distance fromInches(double value) { return fromValue(value, DistanceUnit.INCHES); }
     public static Distance fromCentimeters(double value) { return fromValue(value, DistanceUnit.CENTIMETERS); }
 
+    /**
+     * Converts a value to meters without creating a {@link Distance}.
+     *
+     * @param value The value to convert.
+     * @param unit The {@link DistanceUnit} of the value.
+     * @return The value in meters.
+     */
+    public static double metersFrom(double value, DistanceUnit unit) {
+        return value * FACTORS[unit.ordinal()][METERS];
+    }
+
+    /**
+     * Converts a value in meters to another unit without creating a {@link Distance}.
+     *
+     * @param meters The value in meters.
+     * @param unit The {@link DistanceUnit} to convert to.
+     * @return The value in the new unit.
+     */
+    public static double metersTo(double meters, DistanceUnit unit) {
+        return meters * FACTORS[METERS][unit.ordinal()];
+    }
+
     public static double convert(double value, DistanceUnit oldUnit, DistanceUnit newUnit) {
-        switch (oldUnit) {
-            case FEET:
-               switch (newUnit) {
-                   case FEET: return value; // no change
-                   case INCHES: return value * 12;
-                   case METERS: return value / 3.281;
-                   case CENTIMETERS: return value / 30.48;
-                   default: return value;
-               }
-            case INCHES:
-                switch (newUnit) {
-                    case FEET: return value / 12;
-                    case INCHES: return value; // no change
-                    case METERS: return value / 39.37;
-                    case CENTIMETERS: return value * 2.54;
-                    default: return value;
-                }
-            case METERS:
-                switch (newUnit) {
-                    case FEET: return value * 3.281;
-                    case INCHES: return value * 39.37;
-                    case METERS: return value; // no change
-                    case CENTIMETERS: return value * 100;
-                    default: return value;
-                }
-            case CENTIMETERS:
-                switch (newUnit) {
-                    case FEET: return value / 30.48;
-                    case INCHES: return value / 2.54;
-                    case METERS: return value / 100;
-                    case CENTIMETERS: return value; // no change
-                    default: return value;
-                }
-            default: return value;
-        }
+        return value * FACTORS[oldUnit.ordinal()][newUnit.ordinal()];
     }
 }
@@ -9,6 +9,11 @@ public class GearRatio {
         this.ratio = ratio;
     }
 
+    /** @return The gear reduction, as motor rotations per output rotation. */
+    public double getRatio() {
+        return ratio;
+    }
+
     public double angleToMotorRotations(Rotation2d angle) {
         return (ratio / 360) * angle.getDegrees();
     }
@@ -17,6 +22,11 @@ public class GearRatio {
         return Rotation2d.fromDegrees((360 / ratio) * rotations);
     }
 
+    /** @return The angle in radians after the gear reduction, without creating a {@link Rotation2d}. */
+    public double motorRotationsToRadians(double rotations) {
+        return ((Math.PI * 2) / ratio) * rotations;
+    }
+
     public Rotation2d motorRotationsToAngle(double rotations, boolean max360) {
         double deg = (360 / ratio) * rotations;
         if (max360) 
@@ -27,26 +37,43 @@ public class GearRatio {
     }
 
     public Velocity getWheelVelocity(double motorRPM, Distance wheelDiameter) {
-        double radius = (wheelDiameter.toMeters() / 2);
-        double adjustedRPM = motorRotationsToAngle(motorRPM).getRotations();
-
-        // convert motor rotations to degrees
-        return Velocity.fromMPS(radius * (Math.PI * 2) * (adjustedRPM / 60));
+        return Velocity.fromMPS(getWheelMPS(motorRPM, wheelDiameter.toMeters()));
     }
 
     public double getMotorRPM(Velocity velocity, Distance wheelDiameter) {
-        double radius = (wheelDiameter.toMeters() / 2);
-
-        double motorRPM = (60 / (Math.PI * 2) * radius) * velocity.toMPS();
-        return angleToMotorRotations(Rotation2d.fromRotations(motorRPM))
+        return getMotorRPM(velocity.toMPS(), wheelDiameter.toMeters());
     }
 
     public Distance getWheelDistance(double motorRotations, Distance wheelDiameter) {
-        double radius = (wheelDiameter.toMeters() / 2);
-        double adjustedRotations = motorRotationsToAngle(motorRotations).getRotations();
+        return Distance.fromMeters(getWheelMeters(motorRotations, wheelDiameter.toMeters()));
+    }
+
+    /**
+     * @param motorRPM The velocity of the motor in RPM.
+     * @param wheelDiameterMeters The diameter of the wheel in meters.
+     * @return The velocity of the wheel's surface in meters/sec.
+     */
+    public double getWheelMPS(double motorRPM, double wheelDiameterMeters) {
+        // motor rpm -> wheel rpm -> wheel rps -> mps
+        return (motorRPM / ratio / 60) * (Math.PI * wheelDiameterMeters);
+    }
+
+    /**
+     * @param metersPerSecond The velocity of the wheel's surface in meters/sec.
+     * @param wheelDiameterMeters The diameter of the wheel in meters.
+     * @return The velocity of the motor in RPM.
+     */
+    public double getMotorRPM(double metersPerSecond, double wheelDiameterMeters) {
+        return (metersPerSecond / (Math.PI * wheelDiameterMeters)) * 60 * ratio;
+    }
 
-        // convert motor rotations to degrees
-        return Distance.fromMeters(radius * (Math.PI * 2) * adjustedRotations);
+    /**
+     * @param motorRotations The amount of rotations of the motor.
+     * @param wheelDiameterMeters The diameter of the wheel in meters.
+     * @return The distance travelled by the wheel in meters.
+     */
+    public double getWheelMeters(double motorRotations, double wheelDiameterMeters) {
+        return (motorRotations / ratio) * (Math.PI * wheelDiameterMeters);
     }
 
 
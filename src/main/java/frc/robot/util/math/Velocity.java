@@ -3,16 +3,40 @@ package frc.robot.util.math;
 import edu.wpi.first.math.MathUtil;
 
 public class Velocity implements GetterValue {
+    public static final double MPS_PER_MPH = 1 / 2.237;
+    public static final double MPS_PER_KPH = 1 / 3.60;
+
+    // Conversion factors indexed by [oldUnit.ordinal()][newUnit.ordinal()], so convert() is a single multiply.
+    private static final double[][] FACTORS = new double[VelocityUnit.values().length][VelocityUnit.values().length];
+    private static final int MPS = VelocityUnit.MPS.ordinal();
+
+    static {
+        setFactor(VelocityUnit.KPH, VelocityUnit.MPH, 1 / 1.609);
+        setFactor(VelocityUnit.KPH, VelocityUnit.MPS, MPS_PER_KPH);
+        setFactor(VelocityUnit.MPH, VelocityUnit.KPH, 1.609);
+        setFactor(VelocityUnit.MPH, VelocityUnit.MPS, MPS_PER_MPH);
+        setFactor(VelocityUnit.MPS, VelocityUnit.KPH, 3.60);
+        setFactor(VelocityUnit.MPS, VelocityUnit.MPH, 2.237);
+
+        for (VelocityUnit unit : VelocityUnit.values()) {
+            setFactor(unit, unit, 1);
+        }
+    }
+
+    private static void setFactor(VelocityUnit oldUnit, VelocityUnit newUnit, double factor) {
+        FACTORS[oldUnit.ordinal()][newUnit.ordinal()] = factor;
+    }
+
     private double metersPerSecondValue;
     private VelocityUnit unit;
 
     public Velocity(double value, VelocityUnit unit) {
-        this.metersPerSecondValue = value;
+        this.metersPerSecondValue = mpsFrom(value, unit);
         this.unit = unit;
     }
 
     public Velocity setVelocity(double value, VelocityUnit unit) {
-        this.metersPerSecondValue = convert(value, unit, VelocityUnit.MPS);
+        this.metersPerSecondValue = mpsFrom(value, unit);
         this.unit = unit;
         return this;
     }
@@ -26,16 +50,16 @@ public class Velocity implements GetterValue {
     }
 
     public double toValue(VelocityUnit unit) {
-        return convert(metersPerSecondValue, VelocityUnit.MPS, unit);
+        return mpsTo(metersPerSecondValue, unit);
     }
 
     @Override
     public double toValue() {
-        return convert(metersPerSecondValue, VelocityUnit.MPS, this.unit);
+        return mpsTo(metersPerSecondValue, this.unit);
     }
 
     public double toMPH() { return toValue(VelocityUnit.MPH); }
-    public double toMPS() { return toValue(VelocityUnit.MPS); }
+    public double toMPS() { return metersPerSecondValue; }
     public double toKPH() { return toValue(VelocityUnit.KPH); }
 
     public static Velocity fromValue(double value, VelocityUnit unit) {
@@ -50,30 +74,29 @@ public class Velocity implements GetterValue {
     public static Velocity fromMPS(double value) { return fromValue(value, VelocityUnit.MPS); }
     public static Velocity fromKPH(double value) { return fromValue(value, VelocityUnit.KPH); }
 
+    /**
+     * Converts a value to meters/sec without creating a {@link Velocity}.
+     *
+     * @param value The value to convert.
+     * @param unit The {@link VelocityUnit} of the value.
+     * @return The value in meters/sec.
+     */
+    public static double mpsFrom(double value, VelocityUnit unit) {
+        return value * FACTORS[unit.ordinal()][MPS];
+    }
+
+    /**
+     * Converts a value in meters/sec to another unit without creating a {@link Velocity}.
+     *
+     * @param mps The value in meters/sec.
+     * @param unit The {@link VelocityUnit} to convert to.
+     * @return The value in the new unit.
+     */
+    public static double mpsTo(double mps, VelocityUnit unit) {
+        return mps * FACTORS[MPS][unit.ordinal()];
+    }
+
     public static double convert(double value, VelocityUnit oldUnit, VelocityUnit newUnit) {
-        switch (oldUnit) {
-            case KPH: {
-                switch (newUnit) {
-                    case KPH: return value;
-                    case MPH: return value / 1.609;
-                    case MPS: return value / 3.60;
-                }
-            }
-            case MPH: {
-                switch (newUnit) {
-                    case KPH: return value * 1.609;
-                    case MPH: return value;
-                    case MPS: return value / 2.237;
-                }
-            }
-            case MPS: {
-                switch (newUnit) {
-                    case KPH: return value * 3.60;
-                    case MPH: return value * 2.237;
-                    case MPS: return value;
-                }
-            }
-            default: return value;
-        }
+        return value * FACTORS[oldUnit.ordinal()][newUnit.ordinal()];
     }
 }
@@ -0,0 +1,206 @@
+package frc.robot.util.motor;
+
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj.motorcontrol.MotorController;
+import edu.wpi.first.wpilibj.motorcontrol.MotorControllerGroup;
+import frc.robot.util.telemetry.DoubleSignal;
+import frc.robot.util.telemetry.Telemetry;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static frc.robot.Constants.Global.TEST_MODE;
+import static frc.robot.Constants.MotorOutput.*;
+import static frc.robot.Constants.TelemetryValues.DEBUG_DECIMATION;
+
+/**
+ * A {@link CoalescingMotorController} wraps a {@link MotorController} (or {@link MotorControllerGroup}) and
+ * drops any output which is within a threshold of the last value sent. Every call to <code>set</code> on a
+ * CAN motor controller becomes a CAN frame, even when the value has not changed, so subsystems which
+ * command their motors every loop can skip most of them.
+ * <p>
+ * An unchanged value is still resent once every keep-alive period, and stopping the motor is always sent
+ * immediately. The amount of frames sent and saved are counted for every device.
+ */
+public class CoalescingMotorController implements MotorController {
+    // Output modes, a change in mode is always sent.
+    protected static final int MODE_NONE = -1;
+    protected static final int MODE_POWER = 0;
+    protected static final int MODE_VOLTAGE = 1;
+
+    private static final List<CoalescingMotorController> CONTROLLERS = new ArrayList<>();
+
+    private final MotorController motor;
+    private final int deviceCount;
+    private final DoubleSignal sentSignal;
+    private final DoubleSignal savedSignal;
+
+    private double threshold = OUTPUT_THRESHOLD;
+    private double keepAlivePeriod = OUTPUT_KEEP_ALIVE;
+
+    private int lastMode = MODE_NONE;
+    private double lastValue;
+    private double lastPower;
+    private double lastSendTime;
+
+    private long framesSent;
+    private long framesSaved;
+
+    /**
+     * Creates a new {@link CoalescingMotorController}.
+     *
+     * @param name        The name shown on the dashboard.
+     * @param motor       The {@link MotorController} to send outputs to.
+     * @param deviceCount The amount of CAN devices behind <code>motor</code>, used for counting frames.
+     */
+    public CoalescingMotorController(String name, MotorController motor, int deviceCount) {
+        this.motor = motor;
+        this.deviceCount = deviceCount;
+        this.sentSignal = Telemetry.number("CAN: " + name + " Sent", DEBUG_DECIMATION);
+        this.savedSignal = Telemetry.number("CAN: " + name + " Saved", DEBUG_DECIMATION);
+
+        synchronized (CONTROLLERS) {
+            CONTROLLERS.add(this);
+        }
+    }
+
+    public CoalescingMotorController(String name, MotorController motor) {
+        this(name, motor, 1);
+    }
+
+    /**
+     * Creates a {@link CoalescingMotorController} which drives every motor together through a
+     * {@link MotorControllerGroup}.
+     *
+     * @param name   The name shown on the dashboard.
+     * @param motors The {@link MotorController}s to group together.
+     * @return The {@link CoalescingMotorController} instance.
+     */
+    public static CoalescingMotorController group(String name, MotorController... motors) {
+        MotorController first = motors[0];
+        MotorController[] rest = new MotorController[motors.length - 1];
+        System.arraycopy(motors, 1, rest, 0, rest.length);
+
+        return new CoalescingMotorController(name, new MotorControllerGroup(first, rest), motors.length);
+    }
+
+    /**
+     * Sets the smallest change in output which will be sent. Unit matches the value passed to the setter.
+     *
+     * @param threshold The minimum change in output.
+     * @return The {@link CoalescingMotorController} instance.
+     */
+    public CoalescingMotorController setThreshold(double threshold) {
+        this.threshold = threshold;
+        return this;
+    }
+
+    /**
+     * Sets how often an unchanged output is resent.
+     *
+     * @param seconds The keep-alive period in seconds.
+     * @return The {@link CoalescingMotorController} instance.
+     */
+    public CoalescingMotorController setKeepAlivePeriod(double seconds) {
+        this.keepAlivePeriod = seconds;
+        return this;
+    }
+
+    /**
+     * Checks if an output should be sent, and records it as the last output if it should. Outputs are
+     * always sent when the mode changes, the value crosses or reaches zero (even by less than the
+     * threshold), or the keep-alive period has passed.
+     *
+     * @param mode  The output mode of the value.
+     * @param value The value to send.
+     * @param threshold The minimum change in value from the last output.
+     * @return If the output should be sent to the motor.
+     */
+    protected boolean shouldSend(int mode, double value, double threshold) {
+        double now = Timer.getFPGATimestamp();
+
+        if (mode == lastMode
+                && Math.abs(value - lastValue) <= threshold
+                && Math.signum(value) == Math.signum(lastValue)
+                && now - lastSendTime < keepAlivePeriod) {
+            framesSaved += deviceCount;
+            return false;
+        }
+
+        lastMode = mode;
+        lastValue = value;
+        lastSendTime = now;
+        framesSent += deviceCount;
+        return true;
+    }
+
+    /** Forgets the last output, so the next one is always sent. */
+    protected void invalidate() {
+        lastMode = MODE_NONE;
+    }
+
+    @Override
+    public void set(double speed) {
+        lastPower = speed;
+        if (shouldSend(MODE_POWER, speed, threshold)) {
+            motor.set(speed);
+        }
+    }
+
+    @Override
+    public void setVoltage(double outputVolts) {
+        if (shouldSend(MODE_VOLTAGE, outputVolts, threshold)) {
+            motor.setVoltage(outputVolts);
+        }
+    }
+
+    /** @return The last power passed to {@link #set(double)}, without reading it back from the motor. */
+    @Override
+    public double get() {
+        return lastPower;
+    }
+
+    @Override
+    public void setInverted(boolean isInverted) {
+        motor.setInverted(isInverted);
+        invalidate();
+    }
+
+    @Override
+    public boolean getInverted() {
+        return motor.getInverted();
+    }
+
+    @Override
+    public void disable() {
+        motor.disable();
+        lastPower = 0;
+        invalidate();
+    }
+
+    @Override
+    public void stopMotor() {
+        motor.stopMotor();
+        lastPower = 0;
+        invalidate();
+    }
+
+    /** @return The {@link MotorController} outputs are sent to. */
+    public MotorController getMotor() { return motor; }
+
+    /** @return The amount of CAN frames sent. */
+    public long getFramesSent() { return framesSent; }
+
+    /** @return The amount of CAN frames which were skipped because the output did not change. */
+    public long getFramesSaved() { return framesSaved; }
+
+    /** Puts the frame counters of every {@link CoalescingMotorController} on the dashboard. */
+    public static void updateDashboard() {
+        if (TEST_MODE) {
+            for (CoalescingMotorController controller : CONTROLLERS) {
+                controller.sentSignal.set(controller.framesSent);
+                controller.savedSignal.set(controller.framesSaved);
+            }
+        }
+    }
+}
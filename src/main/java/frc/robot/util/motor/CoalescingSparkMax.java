@@ -0,0 +1,50 @@
+package frc.robot.util.motor;
+
+import com.revrobotics.CANSparkMax;
+import com.revrobotics.SparkMaxPIDController;
+
+/**
+ * A {@link CoalescingMotorController} for a {@link CANSparkMax}, which also coalesces closed-loop
+ * references sent with {@link #setReference(double, CANSparkMax.ControlType)}.
+ */
+public class CoalescingSparkMax extends CoalescingMotorController {
+    // Reference modes are offset past the power and voltage modes.
+    private static final int MODE_REFERENCE = MODE_VOLTAGE + 1;
+
+    private final CANSparkMax motor;
+    private final SparkMaxPIDController pidController;
+    private double referenceThreshold = 0;
+
+    public CoalescingSparkMax(String name, CANSparkMax motor) {
+        super(name, motor);
+        this.motor = motor;
+        this.pidController = motor.getPIDController();
+    }
+
+    /**
+     * Sets the smallest change in reference which will be sent. Unit matches the {@link CANSparkMax.ControlType}
+     * (RPM for velocity, rotations for position).
+     *
+     * @param threshold The minimum change in reference.
+     * @return The {@link CoalescingSparkMax} instance.
+     */
+    public CoalescingSparkMax setReferenceThreshold(double threshold) {
+        this.referenceThreshold = threshold;
+        return this;
+    }
+
+    /**
+     * Sets the reference of the onboard {@link SparkMaxPIDController}, if it changed enough since the last one.
+     *
+     * @param value The reference value.
+     * @param type  The {@link CANSparkMax.ControlType} of the reference.
+     */
+    public void setReference(double value, CANSparkMax.ControlType type) {
+        if (shouldSend(MODE_REFERENCE + type.ordinal(), value, referenceThreshold)) {
+            pidController.setReference(value, type);
+        }
+    }
+
+    /** @return The {@link CANSparkMax} outputs are sent to. */
+    public CANSparkMax getSparkMax() { return motor; }
+}
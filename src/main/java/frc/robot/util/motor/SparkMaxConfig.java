@@ -0,0 +1,182 @@
+package frc.robot.util.motor;
+
+import com.revrobotics.CANSparkMax;
+import com.revrobotics.CANSparkMaxLowLevel.PeriodicFrame;
+
+import java.util.Arrays;
+
+/**
+ * A declarative configuration profile for a {@link CANSparkMax}. Profiles are built once (normally in
+ * {@link frc.robot.Constants}) and applied at boot through the {@link SparkMaxConfigManager}, which only
+ * writes and burns the settings which differ from what the device already has.
+ * <p>
+ * Any setting which is not set is left as it is on the device.
+ */
+public class SparkMaxConfig {
+    public static final int PID_SLOTS = 4;
+
+    private final double[][] pid = new double[PID_SLOTS][];
+    private Integer smartCurrentLimit;
+    private CANSparkMax.IdleMode idleMode;
+    private Double openLoopRampRate;
+    private Double closedLoopRampRate;
+    private Double voltageCompensation;
+    private Boolean inverted;
+    private Double positionConversionFactor;
+    private Double velocityConversionFactor;
+    private double[] pidWrapping;
+    private final int[] framePeriods = new int[PeriodicFrame.values().length];
+
+    public SparkMaxConfig() {
+        Arrays.fill(framePeriods, -1);
+    }
+
+    /** Creates a copy of <code>other</code>, which can be changed without affecting the original. */
+    public SparkMaxConfig(SparkMaxConfig other) {
+        for (int i = 0; i < PID_SLOTS; i++) {
+            pid[i] = other.pid[i] == null ? null : other.pid[i].clone();
+        }
+        smartCurrentLimit = other.smartCurrentLimit;
+        idleMode = other.idleMode;
+        openLoopRampRate = other.openLoopRampRate;
+        closedLoopRampRate = other.closedLoopRampRate;
+        voltageCompensation = other.voltageCompensation;
+        inverted = other.inverted;
+        positionConversionFactor = other.positionConversionFactor;
+        velocityConversionFactor = other.velocityConversionFactor;
+        pidWrapping = other.pidWrapping == null ? null : other.pidWrapping.clone();
+        System.arraycopy(other.framePeriods, 0, framePeriods, 0, framePeriods.length);
+    }
+
+    /**
+     * Sets the gains of a closed-loop slot on the onboard PID controller.
+     *
+     * @param slot The PID slot (0 to 3).
+     * @return The {@link SparkMaxConfig} instance.
+     */
+    public SparkMaxConfig setPID(int slot, double p, double i, double d, double ff) {
+        pid[slot] = new double[]{p, i, d, ff};
+        return this;
+    }
+
+    public SparkMaxConfig setPID(double p, double i, double d, double ff) {
+        return setPID(0, p, i, d, ff);
+    }
+
+    /** @param amps The smart current limit in amps. */
+    public SparkMaxConfig setSmartCurrentLimit(int amps) {
+        this.smartCurrentLimit = amps;
+        return this;
+    }
+
+    public SparkMaxConfig setIdleMode(CANSparkMax.IdleMode mode) {
+        this.idleMode = mode;
+        return this;
+    }
+
+    /** @param seconds The time from 0 to full output in open-loop control. */
+    public SparkMaxConfig setOpenLoopRampRate(double seconds) {
+        this.openLoopRampRate = seconds;
+        return this;
+    }
+
+    /** @param seconds The time from 0 to full output in closed-loop control. */
+    public SparkMaxConfig setClosedLoopRampRate(double seconds) {
+        this.closedLoopRampRate = seconds;
+        return this;
+    }
+
+    /** @param volts The nominal voltage to compensate to, or 0 to disable voltage compensation. */
+    public SparkMaxConfig setVoltageCompensation(double volts) {
+        this.voltageCompensation = volts;
+        return this;
+    }
+
+    public SparkMaxConfig setInverted(boolean inverted) {
+        this.inverted = inverted;
+        return this;
+    }
+
+    /** @param factor The factor the integrated encoder position (in rotations) is multiplied by. */
+    public SparkMaxConfig setPositionConversionFactor(double factor) {
+        this.positionConversionFactor = factor;
+        return this;
+    }
+
+    /** @param factor The factor the integrated encoder velocity (in RPM) is multiplied by. */
+    public SparkMaxConfig setVelocityConversionFactor(double factor) {
+        this.velocityConversionFactor = factor;
+        return this;
+    }
+
+    /**
+     * Enables position PID wrapping, so the onboard position loop always takes the shortest way to the target.
+     *
+     * @param min The minimum input, in units of the position conversion factor.
+     * @param max The maximum input, in units of the position conversion factor.
+     * @return The {@link SparkMaxConfig} instance.
+     */
+    public SparkMaxConfig setPIDWrapping(double min, double max) {
+        this.pidWrapping = new double[]{min, max};
+        return this;
+    }
+
+    /**
+     * Sets how often the SparkMax sends a status frame. Status frame periods are not saved by
+     * {@link CANSparkMax#burnFlash()}, so they are sent on every boot.
+     *
+     * @param frame    The {@link PeriodicFrame} to change.
+     * @param periodMs The period of the frame in milliseconds.
+     * @return The {@link SparkMaxConfig} instance.
+     */
+    public SparkMaxConfig setFramePeriod(PeriodicFrame frame, int periodMs) {
+        framePeriods[frame.ordinal()] = periodMs;
+        return this;
+    }
+
+    /**
+     * Sets every status frame period from a {@link StatusFramePolicy}.
+     *
+     * @param policy The {@link StatusFramePolicy} matching the signals read from the device.
+     * @return The {@link SparkMaxConfig} instance.
+     */
+    public SparkMaxConfig setStatusFramePolicy(StatusFramePolicy policy) {
+        for (PeriodicFrame frame : PeriodicFrame.values()) {
+            setFramePeriod(frame, policy.getPeriod(frame));
+        }
+        return this;
+    }
+
+    double[] getPID(int slot) { return pid[slot]; }
+    Integer getSmartCurrentLimit() { return smartCurrentLimit; }
+    CANSparkMax.IdleMode getIdleMode() { return idleMode; }
+    Double getOpenLoopRampRate() { return openLoopRampRate; }
+    Double getClosedLoopRampRate() { return closedLoopRampRate; }
+    Double getVoltageCompensation() { return voltageCompensation; }
+    Boolean getInverted() { return inverted; }
+    Double getPositionConversionFactor() { return positionConversionFactor; }
+    Double getVelocityConversionFactor() { return velocityConversionFactor; }
+    double[] getPIDWrapping() { return pidWrapping; }
+    int getFramePeriod(PeriodicFrame frame) { return framePeriods[frame.ordinal()]; }
+
+    /**
+     * @return A stable description of every persisted setting, used as the fingerprint stored by the
+     * {@link SparkMaxConfigManager}. Status frame periods are not persisted, so they are not included.
+     */
+    String getFingerprint() {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < PID_SLOTS; i++) {
+            builder.append("pid").append(i).append('=').append(Arrays.toString(pid[i])).append(';');
+        }
+        return builder.append("current=").append(smartCurrentLimit)
+                .append(";idle=").append(idleMode)
+                .append(";openRamp=").append(openLoopRampRate)
+                .append(";closedRamp=").append(closedLoopRampRate)
+                .append(";voltage=").append(voltageCompensation)
+                .append(";inverted=").append(inverted)
+                .append(";position=").append(positionConversionFactor)
+                .append(";velocity=").append(velocityConversionFactor)
+                .append(";wrapping=").append(Arrays.toString(pidWrapping))
+                .toString();
+    }
+}
@@ -0,0 +1,251 @@
+package frc.robot.util.motor;
+
+import com.revrobotics.CANSparkMax;
+import com.revrobotics.CANSparkMaxLowLevel.PeriodicFrame;
+import com.revrobotics.REVLibError;
+import com.revrobotics.RelativeEncoder;
+import com.revrobotics.SparkMaxPIDController;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.Filesystem;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Applies {@link SparkMaxConfig} profiles to {@link CANSparkMax}es once at boot.
+ * <p>
+ * The fingerprint of the last profile burned to each device (by CAN ID) is cached in a file in the operating
+ * directory. When the cached fingerprint matches and every setting which can be read back already matches the
+ * profile, nothing is written. Otherwise every setting is written, read back to verify it, and
+ * {@link CANSparkMax#burnFlash()} is only called once the device matches. This keeps boot fast and avoids
+ * wearing out the flash with a burn on every boot.
+ * <p>
+ * Status frame periods are not saved to flash, so they are always sent.
+ * <p>
+ * Devices can be configured from several threads at once; only the cache file is written under a lock.
+ */
+public class SparkMaxConfigManager {
+    private static final String CACHE_FILE = "sparkmax-config.properties";
+    // Settings are stored as floats on the SparkMax, so read-back values are compared with a relative tolerance.
+    private static final double TOLERANCE = 1e-5;
+
+    private static final SparkMaxConfigManager INSTANCE = new SparkMaxConfigManager();
+
+    private final File cacheFile = new File(Filesystem.getOperatingDirectory(), CACHE_FILE);
+    private final Properties cache = new Properties();
+
+    private final AtomicInteger devicesBurned = new AtomicInteger();
+
+    /** @return The {@link SparkMaxConfigManager} shared by every device. */
+    public static SparkMaxConfigManager getInstance() {
+        return INSTANCE;
+    }
+
+    private SparkMaxConfigManager() {
+        if (cacheFile.exists()) {
+            try (InputStream input = new FileInputStream(cacheFile)) {
+                cache.load(input);
+            } catch (IOException e) {
+                DriverStation.reportWarning("Could not read " + CACHE_FILE + ": " + e.getMessage(), false);
+            }
+        }
+    }
+
+    /**
+     * Applies a {@link SparkMaxConfig} profile to a {@link CANSparkMax}, burning it to flash only if the
+     * device does not already match.
+     *
+     * @param motor  The {@link CANSparkMax} to configure.
+     * @param config The {@link SparkMaxConfig} profile to apply.
+     * @return If the device matches the profile.
+     */
+    public boolean apply(CANSparkMax motor, SparkMaxConfig config) {
+        String key = "can." + motor.getDeviceId();
+        String fingerprint = config.getFingerprint();
+
+        boolean matches = fingerprint.equals(cache.getProperty(key)) && verify(motor, config, false);
+        if (!matches) {
+            boolean written = write(motor, config);
+            matches = written && verify(motor, config, true);
+
+            if (matches && motor.burnFlash() == REVLibError.kOk) {
+                devicesBurned.incrementAndGet();
+                cache.setProperty(key, fingerprint);
+                save();
+            }
+        }
+
+        for (PeriodicFrame frame : PeriodicFrame.values()) {
+            int period = config.getFramePeriod(frame);
+            if (period >= 0) {
+                check(motor, "status frame " + frame, motor.setPeriodicFramePeriod(frame, period));
+            }
+        }
+
+        return matches;
+    }
+
+    /** @return The amount of devices burned to flash since boot. */
+    public int getDevicesBurned() {
+        return devicesBurned.get();
+    }
+
+    private boolean write(CANSparkMax motor, SparkMaxConfig config) {
+        boolean ok = true;
+        SparkMaxPIDController controller = motor.getPIDController();
+
+        for (int slot = 0; slot < SparkMaxConfig.PID_SLOTS; slot++) {
+            double[] pid = config.getPID(slot);
+            if (pid == null) continue;
+
+            ok &= check(motor, "P", controller.setP(pid[0], slot));
+            ok &= check(motor, "I", controller.setI(pid[1], slot));
+            ok &= check(motor, "D", controller.setD(pid[2], slot));
+            ok &= check(motor, "FF", controller.setFF(pid[3], slot));
+        }
+
+        if (config.getSmartCurrentLimit() != null) {
+            ok &= check(motor, "current limit", motor.setSmartCurrentLimit(config.getSmartCurrentLimit()));
+        }
+        if (config.getIdleMode() != null) {
+            ok &= check(motor, "idle mode", motor.setIdleMode(config.getIdleMode()));
+        }
+        if (config.getOpenLoopRampRate() != null) {
+            ok &= check(motor, "open loop ramp", motor.setOpenLoopRampRate(config.getOpenLoopRampRate()));
+        }
+        if (config.getClosedLoopRampRate() != null) {
+            ok &= check(motor, "closed loop ramp", motor.setClosedLoopRampRate(config.getClosedLoopRampRate()));
+        }
+        if (config.getVoltageCompensation() != null) {
+            double volts = config.getVoltageCompensation();
+            ok &= check(motor, "voltage compensation", volts > 0
+                    ? motor.enableVoltageCompensation(volts)
+                    : motor.disableVoltageCompensation());
+        }
+        if (config.getInverted() != null) {
+            motor.setInverted(config.getInverted());
+        }
+
+        if (config.getPositionConversionFactor() != null || config.getVelocityConversionFactor() != null) {
+            RelativeEncoder encoder = motor.getEncoder();
+            if (config.getPositionConversionFactor() != null) {
+                ok &= check(motor, "position factor", encoder.setPositionConversionFactor(config.getPositionConversionFactor()));
+            }
+            if (config.getVelocityConversionFactor() != null) {
+                ok &= check(motor, "velocity factor", encoder.setVelocityConversionFactor(config.getVelocityConversionFactor()));
+            }
+        }
+
+        double[] wrapping = config.getPIDWrapping();
+        if (wrapping != null) {
+            ok &= check(motor, "PID wrapping", controller.setPositionPIDWrappingEnabled(true));
+            ok &= check(motor, "PID wrapping min", controller.setPositionPIDWrappingMinInput(wrapping[0]));
+            ok &= check(motor, "PID wrapping max", controller.setPositionPIDWrappingMaxInput(wrapping[1]));
+        }
+
+        return ok;
+    }
+
+    /**
+     * Reads back every setting which the SparkMax can report, and compares it with the profile. The smart
+     * current limit cannot be read back, so it relies on the cached fingerprint.
+     *
+     * @param report If mismatches should be reported to the Driver Station.
+     * @return If every setting matches.
+     */
+    private boolean verify(CANSparkMax motor, SparkMaxConfig config, boolean report) {
+        boolean ok = true;
+        SparkMaxPIDController controller = motor.getPIDController();
+
+        for (int slot = 0; slot < SparkMaxConfig.PID_SLOTS; slot++) {
+            double[] pid = config.getPID(slot);
+            if (pid == null) continue;
+
+            ok &= matches(motor, "P", pid[0], controller.getP(slot), report);
+            ok &= matches(motor, "I", pid[1], controller.getI(slot), report);
+            ok &= matches(motor, "D", pid[2], controller.getD(slot), report);
+            ok &= matches(motor, "FF", pid[3], controller.getFF(slot), report);
+        }
+
+        if (config.getIdleMode() != null && motor.getIdleMode() != config.getIdleMode()) {
+            ok = false;
+            if (report) warn(motor, "idle mode did not verify");
+        }
+        if (config.getOpenLoopRampRate() != null) {
+            ok &= matches(motor, "open loop ramp", config.getOpenLoopRampRate(), motor.getOpenLoopRampRate(), report);
+        }
+        if (config.getClosedLoopRampRate() != null) {
+            ok &= matches(motor, "closed loop ramp", config.getClosedLoopRampRate(), motor.getClosedLoopRampRate(), report);
+        }
+        if (config.getVoltageCompensation() != null && config.getVoltageCompensation() > 0) {
+            ok &= matches(motor, "voltage compensation", config.getVoltageCompensation(),
+                    motor.getVoltageCompensationNominalVoltage(), report);
+        }
+        if (config.getInverted() != null && motor.getInverted() != config.getInverted()) {
+            ok = false;
+            if (report) warn(motor, "inverted did not verify");
+        }
+
+        if (config.getPositionConversionFactor() != null || config.getVelocityConversionFactor() != null) {
+            RelativeEncoder encoder = motor.getEncoder();
+            if (config.getPositionConversionFactor() != null) {
+                ok &= matches(motor, "position factor", config.getPositionConversionFactor(),
+                        encoder.getPositionConversionFactor(), report);
+            }
+            if (config.getVelocityConversionFactor() != null) {
+                ok &= matches(motor, "velocity factor", config.getVelocityConversionFactor(),
+                        encoder.getVelocityConversionFactor(), report);
+            }
+        }
+
+        double[] wrapping = config.getPIDWrapping();
+        if (wrapping != null) {
+            if (!controller.getPositionPIDWrappingEnabled()) {
+                ok = false;
+                if (report) warn(motor, "PID wrapping did not verify");
+            }
+            ok &= matches(motor, "PID wrapping min", wrapping[0], controller.getPositionPIDWrappingMinInput(), report);
+            ok &= matches(motor, "PID wrapping max", wrapping[1], controller.getPositionPIDWrappingMaxInput(), report);
+        }
+
+        return ok;
+    }
+
+    private boolean matches(CANSparkMax motor, String setting, double expected, double actual, boolean report) {
+        if (Math.abs(expected - actual) <= TOLERANCE * Math.max(1, Math.abs(expected))) {
+            return true;
+        }
+
+        if (report) {
+            warn(motor, setting + " did not verify (expected " + expected + ", read " + actual + ")");
+        }
+        return false;
+    }
+
+    private boolean check(CANSparkMax motor, String setting, REVLibError error) {
+        if (error == REVLibError.kOk) {
+            return true;
+        }
+
+        warn(motor, "could not set " + setting + ": " + error);
+        return false;
+    }
+
+    private void warn(CANSparkMax motor, String message) {
+        DriverStation.reportWarning("SparkMax " + motor.getDeviceId() + ": " + message, false);
+    }
+
+    private synchronized void save() {
+        try (OutputStream output = new FileOutputStream(cacheFile)) {
+            cache.store(output, "Fingerprints of the SparkMax configurations burned to flash, by CAN ID");
+        } catch (IOException e) {
+            DriverStation.reportWarning("Could not write " + CACHE_FILE + ": " + e.getMessage(), false);
+        }
+    }
+}
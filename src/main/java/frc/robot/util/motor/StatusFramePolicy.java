@@ -0,0 +1,49 @@
+package frc.robot.util.motor;
+
+import com.revrobotics.CANSparkMaxLowLevel.PeriodicFrame;
+
+/**
+ * Status frame periods for a {@link com.revrobotics.CANSparkMax}, chosen by which signals the robot code
+ * actually reads from it. Frames which nothing reads (a period of 0 below, and every frame after status 2)
+ * are slowed down to {@link #UNUSED_PERIOD_MS}.
+ * <ul>
+ *     <li>Status 0: applied output and faults.</li>
+ *     <li>Status 1: velocity, temperature, bus voltage and output current.</li>
+ *     <li>Status 2: integrated encoder position.</li>
+ *     <li>Status 3: analog sensor.</li>
+ *     <li>Status 4: alternate encoder.</li>
+ *     <li>Status 5 and 6: duty cycle absolute encoder position and velocity.</li>
+ * </ul>
+ */
+public enum StatusFramePolicy {
+    /** A swerve drive motor: velocity for the state, and position for odometry (200 Hz). */
+    DRIVE(20, 10, 5),
+    /** A swerve turn motor running onboard steering: position for the module angle. */
+    TURN(20, 0, 5),
+    /** A PID mechanism: position for the control loop. Nothing reads its velocity or current. */
+    MECHANISM(20, 0, 20),
+    /** A motor which is only commanded and never read, such as the brushed vacuum pumps. */
+    OUTPUT_ONLY(100, 0, 0);
+
+    /** The period used for a frame nothing reads, in milliseconds. */
+    public static final int UNUSED_PERIOD_MS = 500;
+
+    private final int[] periods = new int[PeriodicFrame.values().length];
+
+    StatusFramePolicy(int status0, int status1, int status2) {
+        periods[PeriodicFrame.kStatus0.ordinal()] = status0;
+        periods[PeriodicFrame.kStatus1.ordinal()] = status1 > 0 ? status1 : UNUSED_PERIOD_MS;
+        periods[PeriodicFrame.kStatus2.ordinal()] = status2 > 0 ? status2 : UNUSED_PERIOD_MS;
+        for (int i = PeriodicFrame.kStatus3.ordinal(); i < periods.length; i++) {
+            periods[i] = UNUSED_PERIOD_MS;
+        }
+    }
+
+    /**
+     * @param frame The {@link PeriodicFrame} to get the period of.
+     * @return The period of the frame in milliseconds.
+     */
+    public int getPeriod(PeriodicFrame frame) {
+        return periods[frame.ordinal()];
+    }
+}
@@ -6,20 +6,35 @@ import com.revrobotics.RelativeEncoder;
 import edu.wpi.first.math.controller.PIDController;
 import edu.wpi.first.wpilibj.DriverStation;
 import edu.wpi.first.wpilibj.Encoder;
-import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import frc.robot.util.log.DataRecorder;
+import frc.robot.util.log.LogChannel;
+import frc.robot.util.loop.LoopPhase;
+import frc.robot.util.loop.PhasedLoop;
+import frc.robot.util.motor.CoalescingMotorController;
+import frc.robot.util.motor.SparkMaxConfigManager;
+import frc.robot.util.profiler.LoopProfiler;
+import frc.robot.util.profiler.ProfilerStage;
+import frc.robot.util.sensor.SensorSnapshot;
+import frc.robot.util.telemetry.BooleanSignal;
+import frc.robot.util.telemetry.DoubleSignal;
+import frc.robot.util.telemetry.Telemetry;
 
 import java.util.function.Supplier;
 
 import static com.revrobotics.CANSparkMaxLowLevel.MotorType.kBrushed;
 import static com.revrobotics.CANSparkMaxLowLevel.MotorType.kBrushless;
 import static edu.wpi.first.math.MathUtil.clamp;
+import static frc.robot.Constants.MotorConfigs.MECHANISM_CONFIG;
 
 /**
  * This {@link SparkMaxPIDSubsystem} is intended to make {@link CANSparkMax} PID control easier to
  * implement. It automatically takes care of setting target rotations, encoders, zeroing, etc. This PID system
  * is also designed to be operated manually using the <code>translateMotor</code> method.
+ * <p>
+ * The encoder is read through the {@link SensorSnapshot}, so it is only read once per cycle no matter
+ * how many times {@link #getRotation()} is called.
  *
  * @author Eric Gold (ericg2)
  */
@@ -29,10 +44,20 @@ public class SparkMaxPIDSubsystem extends SubsystemBase {
     );
 
     private final CANSparkMax motor;
+    private final CoalescingMotorController output;
     private final PIDController controller;
     private final RelativeEncoder encoder;
+    private final SensorSnapshot sensors;
+    private final int positionChannel;
     private final String name;
 
+    private final DoubleSignal rotationSignal;
+    private final DoubleSignal targetSignal;
+    private final BooleanSignal atTargetSignal;
+    // [rotation, target rotation, motor power]
+    private final LogChannel log;
+    private final ProfilerStage profilerStage;
+
     private boolean dashEnabled = true;
 
     private Supplier<Double> presetSupplier;
@@ -45,6 +70,8 @@ public class SparkMaxPIDSubsystem extends SubsystemBase {
     private double lastTarget = Double.MAX_VALUE;
 
     private boolean teleopMode;
+    // The power to send in the ACTUATE phase, or NaN to leave the motor as it is.
+    private double pendingOutput = Double.NaN;
 
     /**
      * Sets the Target Rotation that the {@link Encoder} should be set to. While teleoperation mode is disabled,
@@ -125,7 +152,10 @@ public class SparkMaxPIDSubsystem extends SubsystemBase {
     }
 
     /** @return The current {@link Encoder} position of the {@link CANSparkMax} motor. */
-    public double getRotation() { return encoder.getPosition(); }
+    public double getRotation() { return getEncoderPosition(); }
+
+    /** @return The raw {@link Encoder} position in rotations, regardless of any unit conversion by subclasses. */
+    private double getEncoderPosition() { return sensors.get(positionChannel); }
 
     public Supplier<Double> getPresetSupplier() { return presetSupplier; }
 
@@ -135,7 +165,7 @@ public class SparkMaxPIDSubsystem extends SubsystemBase {
     /**
      * Manually translates the motor using a given <code>speed</code>. While <code>speed</code> is not zero, the
      * PID control is disabled, allowing manual rotation to occur. The Target Rotation is set to the current {@link Encoder}
-     * reading during non-zero operation.
+     * reading during non-zero operation. The power is sent with the rest of the outputs, at the end of the loop.
      *
      * @param power A motor power from -1.0 to +1.0 to spin the motor.
      */
@@ -151,9 +181,8 @@ public class SparkMaxPIDSubsystem extends SubsystemBase {
             if (power != 0 && !teleopMode)
                 teleopMode = true;
     
-            motor.set(getLimitAdjustedPower(power));
+            pendingOutput = getLimitAdjustedPower(power);
         }
-       
     }
 
     /**
@@ -174,6 +203,7 @@ public class SparkMaxPIDSubsystem extends SubsystemBase {
     public void resetEncoder() {
         assert encoder != null;
         encoder.setPosition(0);
+        sensors.set(positionChannel, 0);
         targetRotation = 0;
     }
 
@@ -214,13 +244,13 @@ public class SparkMaxPIDSubsystem extends SubsystemBase {
         if (limitBypassSupplier.get()) return power;
 
         if (forwardLimit != Double.MAX_VALUE) {
-            if (power > 0 && encoder.getPosition() >= forwardLimit) {
+            if (power > 0 && getEncoderPosition() >= forwardLimit) {
                 return 0;
             } else {
                 return power;
             }
         } else if (reverseLimit != Double.MIN_VALUE) {
-            if (power < 0 && encoder.getPosition() <= reverseLimit) {
+            if (power < 0 && getEncoderPosition() <= reverseLimit) {
                 return 0;
             } else {
                 return power;
@@ -266,7 +296,7 @@ public class SparkMaxPIDSubsystem extends SubsystemBase {
     }
 
     public SparkMaxPIDSubsystem invert(boolean inverted) {
-        motor.setInverted(inverted);
+        output.setInverted(inverted);
         return this;
     }
 
@@ -276,6 +306,7 @@ public class SparkMaxPIDSubsystem extends SubsystemBase {
 
         this.controller = controller;
         this.motor = motor;
+        this.output = new CoalescingMotorController(name, motor);
         this.name = name;
         this.teleopMode = false;
         this.pidEnabledSupplier = () -> true;
@@ -283,9 +314,20 @@ public class SparkMaxPIDSubsystem extends SubsystemBase {
         this.maxSpeed = 1;
         this.tolerance = 0.5;
         this.encoder = motor.getEncoder();
-        this.targetRotation = encoder.getPosition();
+        this.sensors = SensorSnapshot.getInstance();
+        this.positionChannel = sensors.register(encoder::getPosition);
+        this.targetRotation = getEncoderPosition();
+
+        this.rotationSignal = Telemetry.number(name + " Rotation");
+        this.targetSignal = Telemetry.number(name + " Target Rotation");
+        this.atTargetSignal = Telemetry.bool(name + " At Target");
+        this.log = DataRecorder.getInstance().register("Mechanism/" + name, 3);
+        this.profilerStage = LoopProfiler.getInstance().stage(name + " PID");
 
-        motor.enableVoltageCompensation(12);
+        SparkMaxConfigManager.getInstance().apply(motor, MECHANISM_CONFIG);
+
+        PhasedLoop.getInstance().register(LoopPhase.CONTROL, this::control);
+        PhasedLoop.getInstance().register(LoopPhase.ACTUATE, this::actuate);
     }
 
     public SparkMaxPIDSubsystem(String name, CANSparkMax motor, double kP, double kI, double kD) {
@@ -312,26 +354,44 @@ public class SparkMaxPIDSubsystem extends SubsystemBase {
 
     public Command resetEncoderCommand() { return this.runOnce(this::resetEncoder); }
 
-    @Override
-    public void periodic() {
+    /**
+     * Picks up a preset changed by a command this loop, then calculates the PID output towards the target.
+     * Runs in {@link LoopPhase#CONTROL}, after every command.
+     */
+    private void control() {
+        profilerStage.begin();
+
+        double suppliedTarget = presetSupplier.get();
         if (lastTarget == Double.MAX_VALUE) {
-            lastTarget = presetSupplier.get();
+            lastTarget = suppliedTarget;
+        } else if (lastTarget != suppliedTarget) {
+            setTarget(suppliedTarget);
+            lastTarget = suppliedTarget;
         }
 
         if (!teleopMode && !atTarget() && pidEnabledSupplier.get())
-            motor.set(getLimitAdjustedPower(clamp(controller.calculate(getRotation(), getTargetRotation()), -maxSpeed, maxSpeed)));
+            pendingOutput = getLimitAdjustedPower(clamp(controller.calculate(getRotation(), getTargetRotation()), -maxSpeed, maxSpeed));
 
-        if (dashEnabled) {
-            SmartDashboard.putNumber(name + " Rotation", getRotation());
-            SmartDashboard.putNumber(name + " Target Rotation", getTargetRotation());
-            SmartDashboard.putBoolean(name + " At Target", atTarget());
+        profilerStage.end();
+    }
+
+    /** Sends the output calculated this loop, and logs it. Runs in {@link LoopPhase#ACTUATE}. */
+    private void actuate() {
+        profilerStage.begin();
+
+        if (!Double.isNaN(pendingOutput)) {
+            output.set(pendingOutput);
+            pendingOutput = Double.NaN;
         }
 
-    
-        double suppliedTarget = presetSupplier.get();
-        if (lastTarget != presetSupplier.get()) {
-            setTarget(suppliedTarget);
-            lastTarget = suppliedTarget;
+        log.append(getRotation(), getTargetRotation(), output.get());
+
+        if (dashEnabled) {
+            rotationSignal.set(getRotation());
+            targetSignal.set(getTargetRotation());
+            atTargetSignal.set(atTarget());
         }
+
+        profilerStage.end();
     }
-}
\ No newline at end of file
+}
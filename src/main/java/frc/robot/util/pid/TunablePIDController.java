@@ -6,6 +6,7 @@ import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 public class TunablePIDController extends PIDController {
 
     private String dashName;
+    private String pKey, iKey, dKey;
 
     /**
      * Returns the next output of the PID controller.
@@ -20,22 +21,26 @@ public class TunablePIDController extends PIDController {
 
         // Update the PID with the Dashboard.
         setPID(
-                SmartDashboard.getNumber(dashName + ": P", getP()),
-                SmartDashboard.getNumber(dashName + ": I", getI()),
-                SmartDashboard.getNumber(dashName + ": D", getD())
+                SmartDashboard.getNumber(pKey, getP()),
+                SmartDashboard.getNumber(iKey, getI()),
+                SmartDashboard.getNumber(dKey, getD())
         );
 
         return output;
     }
 
     public void resetDashboard() {
-        SmartDashboard.putNumber(dashName + ": P", getP());
-        SmartDashboard.putNumber(dashName + ": I", getI());
-        SmartDashboard.putNumber(dashName + ": D", getD());
+        SmartDashboard.putNumber(pKey, getP());
+        SmartDashboard.putNumber(iKey, getI());
+        SmartDashboard.putNumber(dKey, getD());
     }
 
     public TunablePIDController setDashboardName(String dashName) {
+        // The keys are built once here, since calculate() reads them every loop.
         this.dashName = dashName;
+        this.pKey = dashName + ": P";
+        this.iKey = dashName + ": I";
+        this.dKey = dashName + ": D";
         resetDashboard();
         return this;
     }
@@ -50,8 +55,7 @@ public class TunablePIDController extends PIDController {
      */
     public TunablePIDController(String dashName, double kp, double ki, double kd) {
         super(kp, ki, kd);
-        this.dashName = dashName;
-        resetDashboard();
+        setDashboardName(dashName);
     }
 
     /**
@@ -64,7 +68,6 @@ public class TunablePIDController extends PIDController {
      */
     public TunablePIDController(String dashName, double kp, double ki, double kd, double period) {
         super(kp, ki, kd, period);
-        this.dashName = dashName;
-        resetDashboard();
+        setDashboardName(dashName);
     }
 }
@@ -0,0 +1,39 @@
+package frc.robot.util.profiler;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Reads the bytes allocated by the current thread from the JVM, for the {@link LoopProfiler} to attribute
+ * allocations to each stage. This is off by default (reading the counter is not free), and is only meant to
+ * be enabled by the allocation regression harness.
+ */
+public class AllocationMeter {
+    private static com.sun.management.ThreadMXBean threads;
+    private static boolean enabled = false;
+
+    private AllocationMeter() {}
+
+    /**
+     * Turns on allocation tracking for every {@link ProfilerStage}.
+     *
+     * @throws UnsupportedOperationException If the JVM cannot measure thread allocations.
+     */
+    public static void enable() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (!(bean instanceof com.sun.management.ThreadMXBean))
+            throw new UnsupportedOperationException("This JVM cannot measure thread allocations");
+
+        threads = (com.sun.management.ThreadMXBean) bean;
+        if (!threads.isThreadAllocatedMemorySupported())
+            throw new UnsupportedOperationException("This JVM cannot measure thread allocations");
+        threads.setThreadAllocatedMemoryEnabled(true);
+        enabled = true;
+    }
+
+    public static boolean isEnabled() { return enabled; }
+
+    /** @return The total bytes allocated by the current thread, or 0 if tracking is not enabled. */
+    public static long currentThreadBytes() {
+        return enabled ? threads.getThreadAllocatedBytes(Thread.currentThread().getId()) : 0;
+    }
+}
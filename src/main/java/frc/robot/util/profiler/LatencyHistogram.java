@@ -0,0 +1,56 @@
+package frc.robot.util.profiler;
+
+import static frc.robot.Constants.Profiler.HISTOGRAM_BUCKETS;
+import static frc.robot.Constants.Profiler.HISTOGRAM_BUCKET_MS;
+
+/**
+ * A fixed-bucket histogram of durations. Every bucket is {@link frc.robot.Constants.Profiler#HISTOGRAM_BUCKET_MS}
+ * wide, and anything longer than the last bucket is counted in an overflow bucket. Percentiles are
+ * reported as the upper edge of the bucket they fall in, so recording never allocates or sorts.
+ */
+public class LatencyHistogram {
+    private final int[] buckets = new int[HISTOGRAM_BUCKETS + 1];
+    private int count;
+    private double maxMs;
+
+    /** @param ms The duration to record in milliseconds. */
+    public void record(double ms) {
+        int bucket = (int) (ms / HISTOGRAM_BUCKET_MS);
+        buckets[Math.min(Math.max(bucket, 0), HISTOGRAM_BUCKETS)]++;
+        count++;
+        maxMs = Math.max(maxMs, ms);
+    }
+
+    /**
+     * @param percentile The percentile to find, from 0.0 to 1.0.
+     * @return The upper edge of the bucket containing the percentile in milliseconds, or the maximum if
+     * it falls in the overflow bucket.
+     */
+    public double getPercentile(double percentile) {
+        if (count == 0) return 0;
+
+        int target = (int) Math.ceil(count * percentile);
+        int seen = 0;
+        for (int i = 0; i < HISTOGRAM_BUCKETS; i++) {
+            seen += buckets[i];
+            if (seen >= target) {
+                return Math.min((i + 1) * HISTOGRAM_BUCKET_MS, maxMs);
+            }
+        }
+        return maxMs;
+    }
+
+    /** @return The longest duration recorded in milliseconds. */
+    public double getMax() { return maxMs; }
+
+    /** @return The amount of durations recorded. */
+    public int getCount() { return count; }
+
+    public void reset() {
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = 0;
+        }
+        count = 0;
+        maxMs = 0;
+    }
+}
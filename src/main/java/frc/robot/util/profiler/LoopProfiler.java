@@ -0,0 +1,177 @@
+package frc.robot.util.profiler;
+
+import edu.wpi.first.wpilibj.DataLogManager;
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.CommandScheduler;
+import frc.robot.util.log.DataRecorder;
+import frc.robot.util.log.LogChannel;
+import frc.robot.util.telemetry.DoubleArraySignal;
+import frc.robot.util.telemetry.Telemetry;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static frc.robot.Constants.Profiler.*;
+
+/**
+ * The {@link LoopProfiler} times every stage of the robot loop (each subsystem's <code>periodic()</code> and
+ * each command's <code>execute()</code>) and the loop as a whole, feeding fixed-bucket
+ * {@link LatencyHistogram}s. The p50, p99 and max of every stage are published once every
+ * {@link frc.robot.Constants.Profiler#PROFILER_PUBLISH_LOOPS} loops.
+ * <p>
+ * When a loop overruns its period, the stage which took the longest that loop is blamed, and an attribution
+ * record is written to the {@link DataRecorder}, and a message naming the stage is written to the log and
+ * console through {@link DataLogManager#log(String)}.
+ * <p>
+ * Commands are timed without modifying them. A marker bound to the default button loop (after every
+ * other binding) marks the start of command execution, and every
+ * {@link CommandScheduler#onCommandExecute(java.util.function.Consumer)} callback marks the end of one
+ * command. Each command's time therefore also includes the previous command's <code>isFinished()</code>.
+ * Commands are grouped by name, and once every stage is used up, any new command is timed as
+ * "Command (other)".
+ */
+public class LoopProfiler {
+    private static final LoopProfiler INSTANCE = new LoopProfiler();
+
+    private final ProfilerStage[] stages = new ProfilerStage[PROFILER_MAX_STAGES];
+    private int stageCount = 0;
+    // Keyed by name, so every instance of a command class shares one stage and one dashboard entry.
+    private final Map<String, ProfilerStage> commandStages = new HashMap<>();
+    // Times every command once there are no stages left, instead of failing in the middle of the loop.
+    private final ProfilerStage otherCommandStage = stage("Command (other)");
+
+    private final LatencyHistogram loopHistogram = new LatencyHistogram();
+    // [p50 (ms), p99 (ms), max (ms)]
+    private final DoubleArraySignal loopSignal = Telemetry.numbers("Profiler: Loop", 3);
+    // [loop time (ms), stage id, stage time (ms)]
+    private final LogChannel overrunLog = DataRecorder.getInstance().register("Profiler/Overruns", 3);
+
+    private double periodMs = 20;
+    private long loopStartNanos;
+    private long commandMarkNanos;
+    private long commandMarkBytes;
+    private int loopsSincePublish;
+    private long overrunCount;
+
+    /** @return The {@link LoopProfiler} shared by every subsystem. */
+    public static LoopProfiler getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Registers a new stage to time. This should be done once, in a constructor.
+     *
+     * @param name The name of the stage on the dashboard.
+     * @return The {@link ProfilerStage} to time.
+     */
+    public synchronized ProfilerStage stage(String name) {
+        if (stageCount >= PROFILER_MAX_STAGES) {
+            throw new IllegalStateException("Too many profiler stages, increase Profiler.PROFILER_MAX_STAGES");
+        }
+
+        ProfilerStage stage = new ProfilerStage(stageCount, name);
+        stages[stageCount++] = stage;
+        return stage;
+    }
+
+    /**
+     * Starts timing scheduled commands. Must be called after every button binding is configured, so the
+     * marker runs after all of them.
+     *
+     * @param periodSeconds The period of the robot loop, used to detect overruns.
+     */
+    public void bindCommands(double periodSeconds) {
+        this.periodMs = periodSeconds * 1000;
+
+        CommandScheduler scheduler = CommandScheduler.getInstance();
+        scheduler.getDefaultButtonLoop().bind(() -> {
+            commandMarkBytes = AllocationMeter.currentThreadBytes();
+            commandMarkNanos = System.nanoTime();
+        });
+        scheduler.onCommandExecute(command -> {
+            long now = System.nanoTime();
+            long bytes = AllocationMeter.currentThreadBytes();
+            getCommandStage(command).add(now - commandMarkNanos, bytes - commandMarkBytes);
+            commandMarkNanos = now;
+            commandMarkBytes = AllocationMeter.currentThreadBytes();
+        });
+    }
+
+    private ProfilerStage getCommandStage(Command command) {
+        String name = command.getName();
+        ProfilerStage stage = commandStages.get(name);
+        if (stage == null) {
+            synchronized (this) {
+                stage = stageCount < PROFILER_MAX_STAGES ? stage("Command " + name) : otherCommandStage;
+            }
+            commandStages.put(name, stage);
+        }
+        return stage;
+    }
+
+    /** Marks the start of a robot loop. */
+    public void beginLoop() {
+        loopStartNanos = System.nanoTime();
+        commandMarkNanos = loopStartNanos;
+    }
+
+    /** Marks the end of a robot loop, checking for an overrun and publishing the histograms when due. */
+    public void endLoop() {
+        double loopMs = (System.nanoTime() - loopStartNanos) / 1e6;
+        loopHistogram.record(loopMs);
+
+        if (loopMs > periodMs) {
+            reportOverrun(loopMs);
+        }
+
+        for (int i = 0; i < stageCount; i++) {
+            stages[i].finishLoop();
+        }
+
+        if (++loopsSincePublish >= PROFILER_PUBLISH_LOOPS) {
+            loopsSincePublish = 0;
+            loopSignal.set(loopHistogram.getPercentile(0.5), loopHistogram.getPercentile(0.99), loopHistogram.getMax());
+            loopHistogram.reset();
+
+            for (int i = 0; i < stageCount; i++) {
+                stages[i].publish();
+            }
+        }
+    }
+
+    private void reportOverrun(double loopMs) {
+        ProfilerStage worst = null;
+        for (int i = 0; i < stageCount; i++) {
+            if (worst == null || stages[i].getLoopMs() > worst.getLoopMs()) {
+                worst = stages[i];
+            }
+        }
+
+        overrunCount++;
+        if (worst == null) {
+            overrunLog.append(loopMs, -1, 0);
+            return;
+        }
+
+        overrunLog.append(loopMs, worst.getId(), worst.getLoopMs());
+        // Only formatted on an overrun, so this does not allocate in a normal loop.
+        DataLogManager.log(String.format(
+                "Loop overrun (%.1f ms): %s took %.1f ms",
+                loopMs,
+                worst.getName(),
+                worst.getLoopMs()
+        ));
+    }
+
+    /** @return The amount of loops which have overrun their period. */
+    public long getOverrunCount() { return overrunCount; }
+
+    /** @return The amount of registered stages. */
+    public synchronized int getStageCount() { return stageCount; }
+
+    /**
+     * @param id The id of the stage, from 0 to {@link #getStageCount()}.
+     * @return The {@link ProfilerStage} with the id.
+     */
+    public synchronized ProfilerStage getStage(int id) { return stages[id]; }
+}
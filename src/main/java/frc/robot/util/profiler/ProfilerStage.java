@@ -0,0 +1,96 @@
+package frc.robot.util.profiler;
+
+import frc.robot.util.telemetry.DoubleArraySignal;
+import frc.robot.util.telemetry.Telemetry;
+
+/**
+ * A named section of the robot loop timed by the {@link LoopProfiler}, such as a subsystem's
+ * <code>periodic()</code> or a command's <code>execute()</code>. A stage can be timed more than once per
+ * loop; the times are added together.
+ * <p>
+ * When the {@link AllocationMeter} is enabled, the bytes allocated by the stage are counted as well.
+ */
+public class ProfilerStage {
+    private final int id;
+    private final String name;
+    private final LatencyHistogram histogram = new LatencyHistogram();
+    // [p50 (ms), p99 (ms), max (ms)]
+    private final DoubleArraySignal signal;
+
+    private long startNanos;
+    private long loopNanos;
+    private boolean ranThisLoop;
+
+    private long startBytes;
+    private long loopBytes;
+    private long maxLoopBytes;
+    private long totalBytes;
+    private long loopsRan;
+
+    ProfilerStage(int id, String name) {
+        this.id = id;
+        this.name = name;
+        this.signal = Telemetry.numbers("Profiler: " + name, 3);
+    }
+
+    /** Starts timing the stage. */
+    public void begin() {
+        startBytes = AllocationMeter.currentThreadBytes();
+        startNanos = System.nanoTime();
+    }
+
+    /** Stops timing the stage, and adds the time since {@link #begin()} to this loop. */
+    public void end() {
+        long nanos = System.nanoTime() - startNanos;
+        add(nanos, AllocationMeter.currentThreadBytes() - startBytes);
+    }
+
+    void add(long nanos, long bytes) {
+        loopNanos += nanos;
+        loopBytes += bytes;
+        ranThisLoop = true;
+    }
+
+    /** Records this loop's time into the histogram, and clears it for the next loop. */
+    void finishLoop() {
+        if (ranThisLoop) {
+            histogram.record(loopNanos / 1e6);
+            totalBytes += loopBytes;
+            maxLoopBytes = Math.max(maxLoopBytes, loopBytes);
+            loopsRan++;
+        }
+        loopNanos = 0;
+        loopBytes = 0;
+        ranThisLoop = false;
+    }
+
+    void publish() {
+        signal.set(histogram.getPercentile(0.5), histogram.getPercentile(0.99), histogram.getMax());
+        histogram.reset();
+    }
+
+    /** @return The time spent in this stage during the current loop in milliseconds. */
+    public double getLoopMs() { return loopNanos / 1e6; }
+
+    public LatencyHistogram getHistogram() { return histogram; }
+
+    /** @return The bytes allocated by this stage over every loop it ran in, since the last reset. */
+    public long getTotalBytes() { return totalBytes; }
+
+    /** @return The most bytes allocated by this stage in one loop, since the last reset. */
+    public long getMaxLoopBytes() { return maxLoopBytes; }
+
+    /** @return The amount of loops this stage ran in, since the last reset. */
+    public long getLoopsRan() { return loopsRan; }
+
+    /** Clears the allocation counters. */
+    public void resetAllocations() {
+        totalBytes = 0;
+        maxLoopBytes = 0;
+        loopsRan = 0;
+    }
+
+    public String getName() { return name; }
+
+    public int getId() { return id; }
+}
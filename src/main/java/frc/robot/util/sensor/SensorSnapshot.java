@@ -0,0 +1,197 @@
+package frc.robot.util.sensor;
+
+import edu.wpi.first.wpilibj.Notifier;
+import edu.wpi.first.wpilibj.Timer;
+
+import java.lang.invoke.VarHandle;
+import java.util.function.DoubleSupplier;
+
+/**
+ * A {@link SensorSnapshot} reads every registered sensor (encoders, absolute encoders, gyro) exactly once
+ * per cycle on its own {@link Notifier} thread, and publishes the values together as one primitive snapshot.
+ * <p>
+ * The acquisition thread fills a back buffer, then copies it into the published buffer guarded by a
+ * sequence number (a seqlock), so neither side ever blocks. The main robot loop calls {@link #latch()}
+ * once at the start of every loop, which copies the newest snapshot into a front buffer. Every
+ * {@link #get(int)} during that loop then sees the same, consistent values without making any JNI
+ * or CAN calls.
+ * <p>
+ * {@link #latch()}, {@link #get(int)} and {@link #set(int, double)} must only be called from the main
+ * robot thread. Code on other threads (such as the odometry thread) should read its devices directly.
+ */
+public class SensorSnapshot {
+    /** The maximum amount of channels which can be registered. */
+    public static final int MAX_CHANNELS = 64;
+
+    private static final SensorSnapshot INSTANCE = new SensorSnapshot();
+
+    private final DoubleSupplier[] sources = new DoubleSupplier[MAX_CHANNELS];
+    private volatile int channelCount = 0;
+
+    private final double[] back = new double[MAX_CHANNELS];
+    private final double[] published = new double[MAX_CHANNELS];
+    private final double[] front = new double[MAX_CHANNELS];
+
+    private double backTimestamp, publishedTimestamp, frontTimestamp;
+    // When the acquisition of each buffer started, to tell if it was read before or after an override.
+    private double backStartTimestamp, publishedStartTimestamp, frontStartTimestamp;
+
+    // Values set by set(int, double), kept until a snapshot started after the override replaces them.
+    private final double[] overrideValues = new double[MAX_CHANNELS];
+    private final double[] overrideTimestamps = new double[MAX_CHANNELS];
+    private final boolean[] overridden = new boolean[MAX_CHANNELS];
+    private int overrideCount = 0;
+
+    // Odd while the published buffer is being written, even when it is stable.
+    private volatile int version = 0;
+
+    private Notifier notifier;
+
+    /** @return The {@link SensorSnapshot} shared by every subsystem. */
+    public static SensorSnapshot getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Registers a new sensor channel. The <code>source</code> is called once per cycle on the acquisition
+     * thread, so it must be safe to call from another thread (WPILib and REVLib getters are).
+     *
+     * @param source The {@link DoubleSupplier} which reads the sensor.
+     * @return The channel index used to read the value with {@link #get(int)}.
+     */
+    public synchronized int register(DoubleSupplier source) {
+        if (notifier != null) {
+            throw new IllegalStateException("Sensor channels must be registered before SensorSnapshot.start()");
+        }
+
+        int channel = channelCount;
+        if (channel >= MAX_CHANNELS) {
+            throw new IllegalStateException("Too many sensor channels, increase SensorSnapshot.MAX_CHANNELS");
+        }
+
+        sources[channel] = source;
+        double value = source.getAsDouble();
+        back[channel] = value;
+        published[channel] = value;
+        front[channel] = value;
+
+        // Publishes the new source to the acquisition thread.
+        channelCount = channel + 1;
+        return channel;
+    }
+
+    /**
+     * Starts reading every channel on its own {@link Notifier} thread. Every channel must be registered
+     * before this is called.
+     *
+     * @param periodSeconds The period between snapshots in seconds.
+     */
+    public synchronized void start(double periodSeconds) {
+        if (notifier == null) {
+            notifier = new Notifier(this::acquire);
+            notifier.setName("SensorSnapshot");
+        }
+        notifier.startPeriodic(periodSeconds);
+    }
+
+    /** Stops the acquisition thread. {@link #latch()} will read the sensors itself until restarted. */
+    public synchronized void stop() {
+        if (notifier != null) {
+            notifier.stop();
+            notifier.close();
+            notifier = null;
+        }
+    }
+
+    /** Reads every channel once into the back buffer, then publishes it. */
+    private void acquire() {
+        int count = channelCount;
+        backStartTimestamp = Timer.getFPGATimestamp();
+        for (int i = 0; i < count; i++) {
+            back[i] = sources[i].getAsDouble();
+        }
+        backTimestamp = Timer.getFPGATimestamp();
+
+        int v = version;
+        version = v + 1;
+        VarHandle.storeStoreFence();
+        System.arraycopy(back, 0, published, 0, count);
+        publishedTimestamp = backTimestamp;
+        publishedStartTimestamp = backStartTimestamp;
+        version = v + 2;
+    }
+
+    /**
+     * Copies the newest snapshot into the front buffer read by {@link #get(int)}. Call this once at the
+     * start of every robot loop, before any subsystem or command runs. If the acquisition thread is not
+     * running, the sensors are read here instead.
+     */
+    public void latch() {
+        if (notifier == null) {
+            acquire();
+        }
+
+        int count = channelCount;
+        int before, after;
+        do {
+            before = version;
+            System.arraycopy(published, 0, front, 0, count);
+            frontTimestamp = publishedTimestamp;
+            frontStartTimestamp = publishedStartTimestamp;
+            VarHandle.loadLoadFence();
+            after = version;
+        } while ((before & 1) != 0 || before != after);
+
+        if (overrideCount > 0) {
+            applyOverrides(count);
+        }
+    }
+
+    /**
+     * Keeps every override whose sensor has not been read since it was set, and drops the rest. A snapshot
+     * which started before the override may still hold the old value (such as an encoder before its reset).
+     */
+    private void applyOverrides(int count) {
+        for (int i = 0; i < count; i++) {
+            if (!overridden[i]) continue;
+
+            if (frontStartTimestamp > overrideTimestamps[i]) {
+                overridden[i] = false;
+                overrideCount--;
+            } else {
+                front[i] = overrideValues[i];
+            }
+        }
+    }
+
+    /**
+     * @param channel The channel returned by {@link #register(DoubleSupplier)}.
+     * @return The value of the channel in the latched snapshot.
+     */
+    public double get(int channel) {
+        return front[channel];
+    }
+
+    /**
+     * Overrides the value of a channel until a snapshot taken after this call is latched. Use this after
+     * changing a sensor (for example resetting an encoder) so neither the rest of the loop nor a snapshot
+     * already in flight shows the old value.
+     *
+     * @param channel The channel returned by {@link #register(DoubleSupplier)}.
+     * @param value The new value of the channel.
+     */
+    public void set(int channel, double value) {
+        front[channel] = value;
+        overrideValues[channel] = value;
+        overrideTimestamps[channel] = Timer.getFPGATimestamp();
+        if (!overridden[channel]) {
+            overridden[channel] = true;
+            overrideCount++;
+        }
+    }
+
+    /** @return The FPGA timestamp (in seconds) the latched snapshot was read at. */
+    public double getTimestamp() {
+        return frontTimestamp;
+    }
+}
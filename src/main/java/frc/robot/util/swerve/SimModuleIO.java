@@ -0,0 +1,138 @@
+package frc.robot.util.swerve;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.system.plant.DCMotor;
+import edu.wpi.first.math.util.Units;
+import edu.wpi.first.wpilibj.RobotController;
+import edu.wpi.first.wpilibj.simulation.DCMotorSim;
+
+import static frc.robot.Constants.Chassis.TURN_POSITION_P;
+
+/**
+ * A physics-based {@link SwerveModuleIO} for running the drive without a robot. Both NEOs are modelled as
+ * {@link DCMotorSim}s using the gear ratios from the {@link SwerveModuleConfig}, and the absolute encoder
+ * reading is generated from the simulated module angle, like an encoder on the module output shaft.
+ */
+public class SimModuleIO implements SwerveModuleIO {
+    // Moment of inertia seen by each gearbox output, in kg*m^2. Rough values for a MK4-style module.
+    private static final double DRIVE_MOI = 0.025;
+    private static final double TURN_MOI = 0.004;
+
+    // Proportional gain (volts per motor RPM of error) used to mimic the SparkMax velocity loop.
+    private static final double DRIVE_VELOCITY_KP = 0.002;
+
+    private final DCMotor driveGearbox = DCMotor.getNEO(1);
+    private final DCMotorSim driveSim;
+    private final DCMotorSim turnSim;
+
+    private final double driveRatio;
+    private final double turnRatio;
+    private final double offsetRadians;
+
+    private double drivePower, turnPower;
+    private double targetRPM;
+    private boolean velocityControl;
+    private double drivePositionOffset;
+
+    private double targetTurnRadians;
+    private boolean positionControl;
+    private double turnPositionOffset;
+
+    /**
+     * @param config The {@link SwerveModuleConfig} containing the gear ratios.
+     * @param offset The offset the {@link SwerveModule} adds to the absolute encoder. The simulated
+     *               encoder is mounted at this offset, so the reported angle matches the simulated one.
+     */
+    public SimModuleIO(SwerveModuleConfig config, Rotation2d offset) {
+        this.driveRatio = config.getDriveRatio().getRatio();
+        this.turnRatio = config.getTurnRatio().getRatio();
+        this.offsetRadians = offset.getRadians();
+
+        this.driveSim = new DCMotorSim(driveGearbox, driveRatio, DRIVE_MOI);
+        this.turnSim = new DCMotorSim(DCMotor.getNEO(1), turnRatio, TURN_MOI);
+    }
+
+    @Override
+    public void setDrivePower(double power) {
+        this.drivePower = MathUtil.clamp(power, -1, 1);
+        this.velocityControl = false;
+    }
+
+    @Override
+    public void setDriveVelocity(double motorRPM) {
+        this.targetRPM = motorRPM;
+        this.velocityControl = true;
+    }
+
+    @Override
+    public void setTurnPower(double power) {
+        this.turnPower = MathUtil.clamp(power, -1, 1);
+        this.positionControl = false;
+    }
+
+    @Override
+    public void setTurnPosition(double radians) {
+        this.targetTurnRadians = radians;
+        this.positionControl = true;
+    }
+
+    @Override
+    public double getTurnPosition() {
+        return turnSim.getAngularPositionRad() + turnPositionOffset;
+    }
+
+    @Override
+    public void seedTurnPosition(double radians) {
+        turnPositionOffset = radians - turnSim.getAngularPositionRad();
+    }
+
+    @Override public double getDrivePower() { return drivePower; }
+    @Override public double getTurnPower() { return turnPower; }
+
+    @Override
+    public double getDrivePosition() {
+        return driveSim.getAngularPositionRotations() * driveRatio - drivePositionOffset;
+    }
+
+    @Override
+    public double getDriveVelocity() {
+        return driveSim.getAngularVelocityRPM() * driveRatio;
+    }
+
+    @Override
+    public double getAbsolutePosition() {
+        // One rotation per module rotation, read from 0 to 1 like a duty cycle encoder.
+        double rotations = (turnSim.getAngularPositionRad() - offsetRadians) / (2 * Math.PI);
+        return rotations - Math.floor(rotations);
+    }
+
+    @Override
+    public void resetDriveEncoder() {
+        drivePositionOffset = driveSim.getAngularPositionRotations() * driveRatio;
+    }
+
+    @Override
+    public void updateSimulation(double dtSeconds) {
+        double battery = RobotController.getBatteryVoltage();
+
+        if (velocityControl) {
+            // Feedforward from the motor's velocity constant, with a proportional correction on top.
+            double feedforward = Units.rotationsPerMinuteToRadiansPerSecond(targetRPM) / driveGearbox.KvRadPerSecPerVolt;
+            double volts = feedforward + DRIVE_VELOCITY_KP * (targetRPM - getDriveVelocity());
+            drivePower = MathUtil.clamp(volts / battery, -1, 1);
+        }
+
+        if (positionControl) {
+            // Mimics the SparkMax position loop with PID wrapping enabled.
+            double error = MathUtil.angleModulus(targetTurnRadians - getTurnPosition());
+            turnPower = MathUtil.clamp(TURN_POSITION_P * error, -1, 1);
+        }
+
+        driveSim.setInputVoltage(drivePower * battery);
+        turnSim.setInputVoltage(turnPower * battery);
+
+        driveSim.update(dtSeconds);
+        turnSim.update(dtSeconds);
+    }
+}
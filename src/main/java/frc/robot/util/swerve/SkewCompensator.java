@@ -0,0 +1,69 @@
+package frc.robot.util.swerve;
+
+/**
+ * A {@link SkewCompensator} converts field-relative chassis speeds into robot-relative speeds which drive in a
+ * straight line while the robot rotates.
+ * <p>
+ * Converting the speeds once and holding them for a whole loop ignores the rotation which happens during the
+ * loop, so a robot translating and rotating at the same time drifts toward the direction it is turning. This
+ * treats the commanded motion over one period as a pose change, and finds the constant twist which reaches
+ * that pose (the log map of the pose). The heading used for the field-relative conversion is also pushed
+ * forward by the measured yaw rate, to cover the time between reading the gyro and the modules acting on
+ * the command.
+ * <p>
+ * The results are kept in primitive fields, so no objects are created.
+ */
+public class SkewCompensator {
+    private double vx, vy, omega;
+
+    /**
+     * Calculates the compensated robot-relative speeds. Read the results with {@link #getVx()}, {@link #getVy()}
+     * and {@link #getOmega()}.
+     *
+     * @param vx             X-direction m/s (+ forward, - reverse)
+     * @param vy             Y-direction m/s (+ left, - right)
+     * @param omega          Yaw rad/s (+ left, - right)
+     * @param headingRadians The heading of the robot in radians (counter-clockwise positive), or 0 for robot-relative speeds.
+     * @param yawRate        The measured yaw rate of the robot in rad/s (counter-clockwise positive).
+     * @param latency        The time between reading the heading and the modules acting on the command, in seconds.
+     * @param dt             The period the speeds will be held for, in seconds.
+     */
+    public void calculate(double vx,
+                          double vy,
+                          double omega,
+                          double headingRadians,
+                          double yawRate,
+                          double latency,
+                          double dt) {
+        // Field-relative to robot-relative, using the heading the robot will have when the command takes effect.
+        double heading = headingRadians + yawRate * latency;
+        double cos = Math.cos(heading);
+        double sin = Math.sin(heading);
+        double dx = (vx * cos + vy * sin) * dt;
+        double dy = (-vx * sin + vy * cos) * dt;
+        double dTheta = omega * dt;
+
+        // The log map of the pose (dx, dy, dTheta), see Pose2d#log(Pose2d).
+        double halfDTheta = dTheta / 2;
+        double cosMinusOne = Math.cos(dTheta) - 1;
+        double halfThetaByTanOfHalfDTheta;
+        if (Math.abs(cosMinusOne) < 1e-9) {
+            halfThetaByTanOfHalfDTheta = 1.0 - dTheta * dTheta / 12.0;
+        } else {
+            halfThetaByTanOfHalfDTheta = -(halfDTheta * Math.sin(dTheta)) / cosMinusOne;
+        }
+
+        this.vx = (dx * halfThetaByTanOfHalfDTheta + dy * halfDTheta) / dt;
+        this.vy = (-dx * halfDTheta + dy * halfThetaByTanOfHalfDTheta) / dt;
+        this.omega = omega;
+    }
+
+    /** @return The compensated robot-relative X-direction speed in m/s. */
+    public double getVx() { return vx; }
+
+    /** @return The compensated robot-relative Y-direction speed in m/s. */
+    public double getVy() { return vy; }
+
+    /** @return The yaw rate in rad/s. */
+    public double getOmega() { return omega; }
+}
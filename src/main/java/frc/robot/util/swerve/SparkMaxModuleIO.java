@@ -0,0 +1,98 @@
+package frc.robot.util.swerve;
+
+import com.revrobotics.CANSparkMax;
+import com.revrobotics.RelativeEncoder;
+import edu.wpi.first.wpilibj.DutyCycleEncoder;
+import frc.robot.util.motor.CoalescingMotorController;
+import frc.robot.util.motor.CoalescingSparkMax;
+import frc.robot.util.motor.SparkMaxConfig;
+import frc.robot.util.motor.SparkMaxConfigManager;
+
+import static com.revrobotics.CANSparkMaxLowLevel.MotorType.kBrushless;
+import static frc.robot.Constants.MotorOutput.DRIVE_VELOCITY_THRESHOLD;
+import static frc.robot.Constants.MotorOutput.TURN_POSITION_THRESHOLD;
+
+/**
+ * A {@link SwerveModuleIO} using two NEO {@link CANSparkMax} motors and a {@link DutyCycleEncoder}
+ * for the absolute turn angle. Outputs are sent through a {@link CoalescingMotorController}, so a module
+ * holding the same speed and angle does not send a frame every loop.
+ * <p>
+ * Both motors are configured from {@link SparkMaxConfig} profiles through the {@link SparkMaxConfigManager}.
+ * The turn profile should scale the integrated encoder to module radians with PID wrapping between -pi and
+ * +pi, so the SparkMax can run the steering position loop itself (at 1 kHz).
+ */
+public class SparkMaxModuleIO implements SwerveModuleIO {
+    private final CANSparkMax driveMotor;
+    private final CANSparkMax turnMotor;
+    private final CoalescingSparkMax driveOutput;
+    private final CoalescingSparkMax turnOutput;
+    private final RelativeEncoder driveEncoder;
+    private final RelativeEncoder turnEncoder;
+    private final DutyCycleEncoder rotationPWMEncoder;
+
+    /**
+     * @param driveMotorId       The Motor ID used for driving the wheel.
+     * @param turnMotorId        The Motor ID used for turning the wheel.
+     * @param digitalEncoderPort The DIO port used for the absolute Encoder.
+     * @param driveConfig        The {@link SparkMaxConfig} profile of the drive motor.
+     * @param turnConfig         The {@link SparkMaxConfig} profile of the turn motor.
+     */
+    public SparkMaxModuleIO(int driveMotorId,
+                            int turnMotorId,
+                            int digitalEncoderPort,
+                            SparkMaxConfig driveConfig,
+                            SparkMaxConfig turnConfig) {
+        this.driveMotor = new CANSparkMax(driveMotorId, kBrushless);
+        this.turnMotor = new CANSparkMax(turnMotorId, kBrushless);
+        this.rotationPWMEncoder = new DutyCycleEncoder(digitalEncoderPort);
+        this.driveEncoder = driveMotor.getEncoder();
+
+        this.driveOutput = new CoalescingSparkMax("Drive " + driveMotorId, driveMotor)
+                .setReferenceThreshold(DRIVE_VELOCITY_THRESHOLD);
+        this.turnOutput = new CoalescingSparkMax("Turn " + turnMotorId, turnMotor)
+                .setReferenceThreshold(TURN_POSITION_THRESHOLD);
+
+        this.turnEncoder = turnMotor.getEncoder();
+
+        SparkMaxConfigManager.getInstance().apply(driveMotor, driveConfig);
+        SparkMaxConfigManager.getInstance().apply(turnMotor, turnConfig);
+    }
+
+    @Override
+    public void setDrivePower(double power) {
+        driveOutput.set(power);
+    }
+
+    @Override
+    public void setDriveVelocity(double motorRPM) {
+        driveOutput.setReference(motorRPM, CANSparkMax.ControlType.kVelocity);
+    }
+
+    @Override
+    public void setTurnPower(double power) {
+        turnOutput.set(power);
+    }
+
+    @Override
+    public void setTurnPosition(double radians) {
+        turnOutput.setReference(radians, CANSparkMax.ControlType.kPosition);
+    }
+
+    @Override
+    public void seedTurnPosition(double radians) {
+        turnEncoder.setPosition(radians);
+    }
+
+    @Override public double getTurnPosition() { return turnEncoder.getPosition(); }
+    @Override public double getDrivePower() { return driveMotor.get(); }
+    @Override public double getTurnPower() { return turnMotor.get(); }
+    @Override public double getDrivePosition() { return driveEncoder.getPosition(); }
+    @Override public double getDriveVelocity() { return driveEncoder.getVelocity(); }
+    @Override public double getAbsolutePosition() { return rotationPWMEncoder.get(); }
+    @Override public boolean isAbsoluteEncoderConnected() { return rotationPWMEncoder.isConnected(); }
+
+    @Override
+    public void resetDriveEncoder() {
+        driveEncoder.setPosition(0);
+    }
+}
@@ -1,13 +1,53 @@
 package frc.robot.util.swerve;
 
+import com.kauailabs.navx.AHRSProtocol;
 import com.kauailabs.navx.frc.AHRS;
+import com.kauailabs.navx.frc.ITimestampedDataSubscriber;
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.wpilibj.I2C;
+import edu.wpi.first.wpilibj.RobotBase;
 import edu.wpi.first.wpilibj.SPI;
 import edu.wpi.first.wpilibj.SerialPort;
 
-public class SwerveAHRS extends AHRS {
-    private float rollOffset = 0;
-    private float pitchOffset = 0;
+/**
+ * A navX {@link AHRS} which is read without blocking. Every update the navX sends (up to 200 Hz over SPI) is
+ * received through a callback on the navX's IO thread, and stored with its timestamp in a lock-free ring of
+ * primitives. Yaw, yaw rate, pitch and roll are then read from the latest sample instead of going through the
+ * {@link AHRS}'s own lock, and {@link #getAngleAt(double)} looks up the yaw at a previous point in time.
+ * <p>
+ * The yaw is zeroed in software, so {@link #reset()} takes effect immediately and does not cause a jump in
+ * the samples already in the ring. The ring is the only source of readings: the yaw is measured from the
+ * first sample, and every reading is 0 (less the software offsets) until that sample arrives. When not
+ * running on a robot, the simulated yaw and yaw rate are used instead.
+ */
+public class SwerveAHRS extends AHRS implements ITimestampedDataSubscriber {
+    // Must be a power of two. 64 samples is 320 ms at 200 Hz.
+    private static final int RING_SIZE = 64;
+    private static final int RING_MASK = RING_SIZE - 1;
+
+    private final boolean simulated = RobotBase.isSimulation();
+
+    private volatile float rollOffset = 0;
+    private volatile float pitchOffset = 0;
+    private volatile double yawOffset = 0;
+
+    // Written only by the navX IO thread. A slot is published by incrementing head after it is written.
+    private final double[] timestamps = new double[RING_SIZE];
+    private final double[] yaws = new double[RING_SIZE];
+    private final double[] yawRates = new double[RING_SIZE];
+    private final float[] pitches = new float[RING_SIZE];
+    private final float[] rolls = new float[RING_SIZE];
+    private volatile long head = -1;
+
+    // Unwrapping state of the IO thread.
+    private double accumulatedYaw;
+    private float lastYaw;
+    private long lastSensorTimestamp = -1;
+
+    // Simulated yaw (degrees, clockwise positive like the navX) and yaw rate (degrees/sec).
+    private volatile double simAngle = 0;
+    private volatile double simRate = 0;
 
     /**
      * Constructs the AHRS class using SPI communication and the default update rate.
@@ -19,6 +59,18 @@ public class SwerveAHRS extends AHRS {
      */
     public SwerveAHRS(SPI.Port spi_port_id) {
         super(spi_port_id);
+        registerCallback(this, null);
+    }
+
+    /**
+     * Constructs the AHRS class using SPI communication at a custom update rate.
+     *
+     * @param spi_port_id    SPI port to use.
+     * @param update_rate_hz The rate the navX sends updates at, from 4 to 200 Hz.
+     */
+    public SwerveAHRS(SPI.Port spi_port_id, int update_rate_hz) {
+        super(spi_port_id, (byte) update_rate_hz);
+        registerCallback(this, null);
     }
 
     /**
@@ -31,6 +83,7 @@ public class SwerveAHRS extends AHRS {
      */
     public SwerveAHRS(I2C.Port i2c_port_id) {
         super(i2c_port_id);
+        registerCallback(this, null);
     }
 
     /**
@@ -45,8 +98,109 @@ public class SwerveAHRS extends AHRS {
      */
     public SwerveAHRS(SerialPort.Port serial_port_id) {
         super(serial_port_id);
+        registerCallback(this, null);
     }
 
+    /**
+     * Stores an update from the navX in the ring. Called on the navX's IO thread. The yaw is unwrapped into a
+     * continuous angle which starts at 0 with the first update, so it continues from the readings before any
+     * update arrived. The yaw rate is taken from the sensor's own timestamps, so it is not affected by
+     * when the update happened to be received.
+     * <p>
+     * The sample is stored at <code>system_timestamp</code>, the FPGA time (in milliseconds) the navX library
+     * took when it decoded the update, rather than the time this callback happens to run.
+     */
+    @Override
+    public void timestampedDataReceived(long system_timestamp, long sensor_timestamp,
+                                        AHRSProtocol.AHRSUpdateBase sensor_data, Object context) {
+        double rate = 0;
+        if (lastSensorTimestamp < 0) {
+            accumulatedYaw = 0;
+        } else {
+            double delta = MathUtil.inputModulus(sensor_data.yaw - lastYaw, -180, 180);
+            accumulatedYaw += delta;
+            long dtMs = sensor_timestamp - lastSensorTimestamp;
+            if (dtMs > 0) rate = delta * 1000 / dtMs;
+            else rate = yawRates[(int) (head & RING_MASK)];
+        }
+        lastYaw = sensor_data.yaw;
+        lastSensorTimestamp = sensor_timestamp;
+
+        long next = head + 1;
+        int slot = (int) (next & RING_MASK);
+        timestamps[slot] = system_timestamp / 1e3;
+        yaws[slot] = accumulatedYaw;
+        yawRates[slot] = rate;
+        pitches[slot] = sensor_data.pitch;
+        rolls[slot] = sensor_data.roll;
+        head = next;
+    }
+
+    /** @return If at least one update has been received through the callback. */
+    public boolean hasSamples() {
+        return head >= 0;
+    }
+
+    /** @return The FPGA timestamp (in seconds) of the latest update, or 0 if none have been received. */
+    public double getLatestTimestamp() {
+        long h = head;
+        return h < 0 ? 0 : timestamps[(int) (h & RING_MASK)];
+    }
+
+    /**
+     * Reads the latest value of one field of the ring. The writer is at most one slot ahead of a reader which
+     * has just read {@link #head}, so the slot is only reread if the writer has lapped the whole ring.
+     */
+    private double latest(double[] field) {
+        while (true) {
+            long h = head;
+            double value = field[(int) (h & RING_MASK)];
+            if (head - h < RING_SIZE - 1) return value;
+        }
+    }
+
+    private float latest(float[] field) {
+        while (true) {
+            long h = head;
+            float value = field[(int) (h & RING_MASK)];
+            if (head - h < RING_SIZE - 1) return value;
+        }
+    }
+
+    /**
+     * Looks up the yaw at a previous point in time, interpolating between the two updates around it.
+     * Times older than the ring are clamped to the oldest update, and times after the latest update return
+     * the latest yaw.
+     *
+     * @param timestamp The FPGA timestamp (in seconds) to get the yaw at.
+     * @return The accumulated yaw in degrees (clockwise positive, like {@link #getAngle()}).
+     */
+    public double getAngleAt(double timestamp) {
+        if (simulated || head < 0) return getAngle();
+
+        while (true) {
+            long h = head;
+            long oldest = Math.max(0, h - RING_SIZE + 2);
+            double angle = yaws[(int) (h & RING_MASK)];
+
+            for (long i = h; i > oldest; i--) {
+                int newer = (int) (i & RING_MASK), older = (int) ((i - 1) & RING_MASK);
+                if (timestamps[older] <= timestamp) {
+                    double span = timestamps[newer] - timestamps[older];
+                    double t = span > 0 ? MathUtil.clamp((timestamp - timestamps[older]) / span, 0, 1) : 1;
+                    angle = yaws[older] + (yaws[newer] - yaws[older]) * t;
+                    break;
+                }
+                angle = yaws[older];
+            }
+
+            // The writer may be filling the slot after head, so every slot scanned is intact only if it has not
+            // wrapped around to the oldest one.
+            if (head - h < RING_SIZE - 1 - (h - oldest)) return angle - yawOffset;
+        }
+    }
+
+
     /**
      * Returns the current pitch value (in degrees, from -180 to 180)
      * reported by the sensor.  Pitch is a measure of rotation around
@@ -56,7 +210,7 @@ public class SwerveAHRS extends AHRS {
      */
     @Override
     public float getPitch() {
-        return super.getPitch() - pitchOffset;
+        return (head < 0 ? 0 : latest(pitches)) - pitchOffset;
     }
 
     /**
@@ -68,20 +222,71 @@ public class SwerveAHRS extends AHRS {
      */
     @Override
     public float getRoll() {
-        return super.getRoll() - rollOffset;
+        return (head < 0 ? 0 : latest(rolls)) - rollOffset;
+    }
+
+    /**
+     * Returns the total accumulated yaw angle (Z Axis, in degrees)
+     * reported by the sensor, or the simulated angle when not running on a robot.
+     *
+     * @return The current total accumulated yaw angle (Z axis) of the robot in degrees.
+     */
+    @Override
+    public double getAngle() {
+        if (simulated) return simAngle;
+        return (head < 0 ? 0 : latest(yaws)) - yawOffset;
+    }
+
+    /**
+     * Return the rate of rotation of the yaw (Z-axis) gyro, in degrees per second,
+     * or the simulated rate when not running on a robot.
+     *
+     * @return The current rate of change in yaw angle (in degrees per second)
+     */
+    @Override
+    public double getRate() {
+        if (simulated) return simRate;
+        return head < 0 ? 0 : latest(yawRates);
+    }
+
+    /** @return If the navX is still calibrating. Always false when not running on a robot. */
+    @Override
+    public boolean isCalibrating() {
+        return !simulated && super.isCalibrating();
+    }
+
+    /** @return The heading of the robot as a {@link Rotation2d} (counter-clockwise positive). */
+    @Override
+    public Rotation2d getRotation2d() {
+        return Rotation2d.fromDegrees(-getAngle());
+    }
+
+    /**
+     * Integrates the simulated yaw. Does nothing when running on a robot.
+     *
+     * @param omegaRadiansPerSecond The rotation rate of the chassis (counter-clockwise positive).
+     * @param dtSeconds             The time since the last update, in seconds.
+     */
+    public void updateSimulation(double omegaRadiansPerSecond, double dtSeconds) {
+        if (!simulated) return;
+
+        // The navX is clockwise positive, the opposite of WPILib's coordinate system.
+        simRate = -Math.toDegrees(omegaRadiansPerSecond);
+        simAngle += simRate * dtSeconds;
     }
 
     /**
      * Reset the Yaw gyro.
      * <p>
-     * Resets the Gyro Z (Yaw) axis to a heading of zero. This can be used if
-     * there is significant drift in the gyro and it needs to be recalibrated
-     * after it has been running.
+     * Resets the Gyro Z (Yaw) axis to a heading of zero, and zeroes the pitch and roll. This is done in
+     * software, so it applies immediately and the navX keeps its own continuous yaw.
      */
     @Override
     public void reset() {
-        super.reset();
-        rollOffset = getRoll();
-        pitchOffset = getPitch();
+        simAngle = 0;
+
+        yawOffset += getAngle();
+        rollOffset += getRoll();
+        pitchOffset += getPitch();
     }
 }
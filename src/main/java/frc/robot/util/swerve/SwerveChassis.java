@@ -5,26 +5,35 @@ import edu.wpi.first.math.kinematics.ChassisSpeeds;
 import edu.wpi.first.math.kinematics.SwerveDriveKinematics;
 import edu.wpi.first.math.kinematics.SwerveModulePosition;
 import edu.wpi.first.math.kinematics.SwerveModuleState;
+import edu.wpi.first.wpilibj.TimedRobot;
+import edu.wpi.first.wpilibj.Timer;
 import frc.robot.util.math.Distance;
 
-import java.util.Arrays;
-import java.util.HashMap;
-import java.util.Map;
-
 import static frc.robot.Constants.Chassis.*;
 
 public class SwerveChassis {
-    private final SwerveDriveKinematics swerveKinematics;
+    public static final int FL = 0;
+    public static final int FR = 1;
+    public static final int BL = 2;
+    public static final int BR = 3;
 
-    private static final String NAME_FL = "FL";
-    private static final String NAME_FR = "FR";
-    private static final String NAME_BL = "BL";
-    private static final String NAME_BR = "BR";
+    private final SwerveDriveKinematics swerveKinematics;
+    private final SwerveKinematics kinematics;
+    private final SwerveSetpointGenerator setpointGenerator;
+    private double lastDriveTime = 0;
+    // If drive() calculated module states which have not been sent yet.
+    private boolean outputPending = false;
 
     private final SwerveModule frontLeft;
     private final SwerveModule frontRight;
     private final SwerveModule backLeft;
     private final SwerveModule backRight;
+    private final SwerveModule[] modules;
+
+    private final SwerveModuleState[] moduleStates;
+    private final SwerveModulePosition[] modulePositions;
+    // The angle of each module in the X pattern used by lock(), pointing at the center of the robot.
+    private final double[] lockAngles;
 
     public SwerveChassis(SwerveModule frontLeft,
                          SwerveModule frontRight,
@@ -35,22 +44,43 @@ public class SwerveChassis {
         this.frontLeft = frontLeft;
         this.backRight = backRight;
         this.backLeft = backLeft;
-        
-        swerveKinematics = new SwerveDriveKinematics(
+        this.modules = new SwerveModule[]{frontLeft, frontRight, backLeft, backRight};
+
+        Translation2d[] locations = new Translation2d[]{
                 new Translation2d(sideLength.toMeters() / 2, sideLength.toMeters() / 2),
                 new Translation2d(sideLength.toMeters() / 2, -sideLength.toMeters() / 2),
                 new Translation2d(-sideLength.toMeters() / 2, sideLength.toMeters()/ 2),
                 new Translation2d(-sideLength.toMeters() / 2, -sideLength.toMeters() / 2)
+        };
+
+        lockAngles = new double[locations.length];
+        for (int i = 0; i < locations.length; i++) {
+            lockAngles[i] = Math.atan2(locations[i].getY(), locations[i].getX());
+        }
+
+        swerveKinematics = new SwerveDriveKinematics(locations);
+        kinematics = new SwerveKinematics(locations);
+        setpointGenerator = new SwerveSetpointGenerator(
+                kinematics,
+                MODULE_CONFIG,
+                MAX_ACCELERATION,
+                MAX_ANGULAR_ACCELERATION
         );
-        
+
+        moduleStates = new SwerveModuleState[modules.length];
+        modulePositions = new SwerveModulePosition[modules.length];
+        for (int i = 0; i < modules.length; i++) {
+            moduleStates[i] = new SwerveModuleState();
+            modulePositions[i] = new SwerveModulePosition();
+        }
+
         updateDashboard();
     }
 
     private void updateDashboard() {
-        frontLeft.updateDashboard(NAME_FL);
-        frontRight.updateDashboard(NAME_FR);
-        backLeft.updateDashboard(NAME_BL);
-        backRight.updateDashboard(NAME_BR);
+        for (SwerveModule module : modules) {
+            module.updateDashboard();
+        }
     }
 
     public SwerveModule getFrontLeft() {
@@ -69,40 +99,154 @@ public class SwerveChassis {
         return backRight;
     }
 
+    /**
+     * @param index The fixed index of the module ({@link #FL}, {@link #FR}, {@link #BL} or {@link #BR})
+     * @return The {@link SwerveModule} at the index.
+     */
+    public SwerveModule getModule(int index) {
+        return modules[index];
+    }
+
+    /** @return The amount of {@link SwerveModule}s on the chassis. */
+    public int getModuleCount() {
+        return modules.length;
+    }
+
     public SwerveDriveKinematics getSwerveKinematics() {
         return swerveKinematics;
     }
 
-    public HashMap<String, SwerveModuleState> getSwerveModuleStates() {
-        return new HashMap<>(Map.of(
-                "FL", getFrontLeft().getState(),
-                "BL", getBackLeft().getState(),
-                "FR", getFrontRight().getState(),
-                "BR", getBackRight().getState()
-        ));
+    /** @return The primitive {@link SwerveKinematics} engine used by {@link #drive(double, double, double)}. */
+    public SwerveKinematics getKinematics() {
+        return kinematics;
+    }
+
+    /**
+     * @return The current {@link SwerveModuleState} of each module, ordered by module index. The array and its
+     * elements are reused between calls, copy them if they need to be kept.
+     */
+    public SwerveModuleState[] getSwerveModuleStates() {
+        for (int i = 0; i < modules.length; i++) {
+            moduleStates[i].speedMetersPerSecond = modules[i].getVelocityMPS();
+            moduleStates[i].angle = modules[i].getTurnAngle();
+        }
+        return moduleStates;
     }
 
+    /**
+     * @return The current {@link SwerveModulePosition} of each module, ordered by module index, read straight
+     * from the devices. The array and its elements are reused between calls, copy them if they need to be kept.
+     */
     public SwerveModulePosition[] getSwerveModulePositions() {
-        return new SwerveModulePosition[] {
-                getFrontLeft().getPosition(),
-                getFrontRight().getPosition(),
-                getBackLeft().getPosition(),
-                getBackRight().getPosition()
-        };
+        for (int i = 0; i < modules.length; i++) {
+            modules[i].updatePosition(modulePositions[i]);
+        }
+        return modulePositions;
     }
 
     public void setStates(SwerveModuleState[] states) {
-        frontLeft.setState(states[0]);
-        frontRight.setState(states[1]);
-        backLeft.setState(states[2]);
-        backRight.setState(states[3]);
+        outputPending = false;
+        frontLeft.setState(states[FL]);
+        frontRight.setState(states[FR]);
+        backLeft.setState(states[BL]);
+        backRight.setState(states[BR]);
     }
 
     public void drive(ChassisSpeeds speeds) {
-        setStates(swerveKinematics.toSwerveModuleStates(speeds));
+        drive(speeds.vxMetersPerSecond, speeds.vyMetersPerSecond, speeds.omegaRadiansPerSecond);
+    }
+
+    /**
+     * Drives the chassis using robot-relative speeds. The module states are calculated, desaturated and
+     * optimized in place by the {@link SwerveKinematics} engine, then acceleration and steering-rate limited
+     * by the {@link SwerveSetpointGenerator}, so no objects are created. The states are only sent to the
+     * modules by {@link #flush()}.
+     *
+     * @param vx X-direction m/s (+ forward, - reverse)
+     * @param vy Y-direction m/s (+ left, - right)
+     * @param omega Yaw rad/s (+ left, - right)
+     */
+    public void drive(double vx, double vy, double omega) {
+        drive(vx, vy, omega, measurePeriod());
+    }
+
+    /**
+     * Drives the chassis like {@link #drive(double, double, double)}, with a period already measured by
+     * {@link #measurePeriod()}.
+     *
+     * @param vx X-direction m/s (+ forward, - reverse)
+     * @param vy Y-direction m/s (+ left, - right)
+     * @param omega Yaw rad/s (+ left, - right)
+     * @param dt The period returned by {@link #measurePeriod()}, in seconds.
+     */
+    public void drive(double vx, double vy, double omega, double dt) {
+        setpointGenerator.generate(vx, vy, omega, modules, dt);
+        outputPending = true;
+    }
+
+    /**
+     * Stops the chassis with the wheels turned into an X, so it is hard to push. Like
+     * {@link #drive(double, double, double)}, the states are only sent to the modules by {@link #flush()}, and
+     * no objects are created. The next drive starts the setpoints over from the measured module states.
+     */
+    public void lock() {
+        for (int i = 0; i < modules.length; i++) {
+            kinematics.setState(i, 0, lockAngles[i]);
+            kinematics.optimize(i, modules[i].getTurnRadians());
+        }
+        lastDriveTime = 0;
+        outputPending = true;
+    }
+
+    /**
+     * Measures the time since the last drive, and starts the next period. This is the loop period actually
+     * achieved, so it includes any overrun. Call this once per drive, before calculating the speeds.
+     *
+     * @return The measured period in seconds, or the default period if the chassis was not being driven.
+     */
+    public double measurePeriod() {
+        double now = Timer.getFPGATimestamp();
+        double dt = now - lastDriveTime;
+        lastDriveTime = now;
+
+        // The modules have not been following the setpoints (disabled, or driven by setStates), so start over.
+        // There is no measured period to use in that case.
+        if (dt > SETPOINT_RESET_TIME) {
+            setpointGenerator.reset(modules);
+            dt = TimedRobot.kDefaultPeriod;
+        }
+        return dt;
+    }
+
+    /** Sends the module states calculated by the last {@link #drive(double, double, double)}, if not sent yet. */
+    public void flush() {
+        if (!outputPending) return;
+        outputPending = false;
+
+        for (int i = 0; i < modules.length; i++) {
+            modules[i].setState(kinematics.getSpeed(i), kinematics.getAngle(i));
+        }
         updateDashboard();
     }
 
+    /**
+     * Advances the simulated module backends, if any.
+     *
+     * @param dtSeconds The time since the last update, in seconds.
+     */
+    public void updateSimulation(double dtSeconds) {
+        for (SwerveModule module : modules) {
+            module.getIO().updateSimulation(dtSeconds);
+        }
+    }
+
+    /** Re-seeds the integrated turn encoder of any module which disagrees with its absolute encoder. */
+    public void checkTurnEncoders() {
+        for (SwerveModule module : modules) {
+            module.checkTurnEncoder();
+        }
+    }
+
     public void resetDriveEncoders() {
         frontLeft.resetDriveEncoder();
         frontRight.resetDriveEncoder();
@@ -0,0 +1,165 @@
+package frc.robot.util.swerve;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.geometry.Translation2d;
+
+/**
+ * A {@link SwerveKinematics} engine converts chassis speeds (vx, vy, omega) into per-module speeds and
+ * angles using only primitive arrays. Unlike {@link edu.wpi.first.math.kinematics.SwerveDriveKinematics},
+ * every buffer is allocated once in the constructor, so calling it every loop creates no garbage.
+ * <p>
+ * Modules are accessed by a fixed index, which matches the order the module {@link Translation2d}s were
+ * passed in (see {@link SwerveChassis#FL}, {@link SwerveChassis#FR}, etc).
+ */
+public class SwerveKinematics {
+    private final double[] moduleX;
+    private final double[] moduleY;
+    private final double[] speeds;
+    private final double[] angles;
+    // The center of the modules, and the sum of their squared distances from it, for toChassisSpeeds.
+    private final double centerX, centerY, radiusSquaredSum;
+
+    /**
+     * Creates a new {@link SwerveKinematics} engine.
+     *
+     * @param modules The location of each module relative to the center of the robot, in meters.
+     */
+    public SwerveKinematics(Translation2d... modules) {
+        this.moduleX = new double[modules.length];
+        this.moduleY = new double[modules.length];
+        this.speeds = new double[modules.length];
+        this.angles = new double[modules.length];
+
+        double sumX = 0, sumY = 0;
+        for (int i = 0; i < modules.length; i++) {
+            moduleX[i] = modules[i].getX();
+            moduleY[i] = modules[i].getY();
+            sumX += moduleX[i];
+            sumY += moduleY[i];
+        }
+        centerX = sumX / modules.length;
+        centerY = sumY / modules.length;
+
+        double radiusSum = 0;
+        for (int i = 0; i < modules.length; i++) {
+            double dx = moduleX[i] - centerX;
+            double dy = moduleY[i] - centerY;
+            radiusSum += dx * dx + dy * dy;
+        }
+        radiusSquaredSum = radiusSum;
+    }
+
+    /** @return The amount of modules this engine was created with. */
+    public int getModuleCount() { return speeds.length; }
+
+    /** @return The speed of the module at <code>index</code> in meters/sec. */
+    public double getSpeed(int index) { return speeds[index]; }
+
+    /** @return The angle of the module at <code>index</code> in radians (-pi to +pi). */
+    public double getAngle(int index) { return angles[index]; }
+
+    /**
+     * Overrides the state of a single module. Useful for commanding fixed states (such as locking the wheels)
+     * through the same buffers used by the rest of the drive path.
+     *
+     * @param index The index of the module.
+     * @param speedMetersPerSecond The speed of the module in meters/sec.
+     * @param angleRadians The angle of the module in radians.
+     */
+    public void setState(int index, double speedMetersPerSecond, double angleRadians) {
+        speeds[index] = speedMetersPerSecond;
+        angles[index] = angleRadians;
+    }
+
+    /**
+     * Calculates the speed and angle of every module from the chassis speeds. When the robot is
+     * commanded to stop completely, the previous angles are kept so the wheels do not snap back to zero.
+     *
+     * @param vx X-direction m/s (+ forward, - reverse)
+     * @param vy Y-direction m/s (+ left, - right)
+     * @param omega Yaw rad/s (+ left, - right)
+     */
+    public void toModuleStates(double vx, double vy, double omega) {
+        if (vx == 0 && vy == 0 && omega == 0) {
+            for (int i = 0; i < speeds.length; i++) {
+                speeds[i] = 0;
+            }
+            return;
+        }
+
+        for (int i = 0; i < speeds.length; i++) {
+            double x = vx - omega * moduleY[i];
+            double y = vy + omega * moduleX[i];
+
+            speeds[i] = Math.sqrt(x * x + y * y);
+            angles[i] = Math.atan2(y, x);
+        }
+    }
+
+    /**
+     * Calculates the chassis speeds which best fit the given module states (a least-squares fit), the inverse
+     * of {@link #toModuleStates(double, double, double)}. This does not touch the engine's own buffers.
+     *
+     * @param moduleSpeeds The speed of each module in meters/sec.
+     * @param moduleAngles The angle of each module in radians.
+     * @param out          The array to write [vx (m/s), vy (m/s), omega (rad/s)] into.
+     */
+    public void toChassisSpeeds(double[] moduleSpeeds, double[] moduleAngles, double[] out) {
+        double sumVx = 0, sumVy = 0, omegaSum = 0;
+        for (int i = 0; i < speeds.length; i++) {
+            double vx = moduleSpeeds[i] * Math.cos(moduleAngles[i]);
+            double vy = moduleSpeeds[i] * Math.sin(moduleAngles[i]);
+            sumVx += vx;
+            sumVy += vy;
+            omegaSum += (moduleX[i] - centerX) * vy - (moduleY[i] - centerY) * vx;
+        }
+
+        double omega = radiusSquaredSum > 0 ? omegaSum / radiusSquaredSum : 0;
+        out[0] = sumVx / speeds.length + omega * centerY;
+        out[1] = sumVy / speeds.length - omega * centerX;
+        out[2] = omega;
+    }
+
+    /**
+     * Scales down every module speed equally if any of them exceed <code>maxSpeed</code>, which keeps
+     * the direction of travel the same when the robot is asked to go faster than it can.
+     *
+     * @param maxSpeed The maximum speed of a module in meters/sec.
+     */
+    public void desaturate(double maxSpeed) {
+        double highest = 0;
+        for (double speed : speeds) {
+            highest = Math.max(highest, Math.abs(speed));
+        }
+
+        if (highest > maxSpeed) {
+            double scale = maxSpeed / highest;
+            for (int i = 0; i < speeds.length; i++) {
+                speeds[i] *= scale;
+            }
+        }
+    }
+
+    /**
+     * Optimizes the module at <code>index</code> so it never has to turn more than 90 degrees. If the target
+     * is further away than that, the angle is flipped by 180 degrees and the speed is reversed instead.
+     *
+     * @param index The index of the module.
+     * @param currentAngleRadians The current angle of the module in radians.
+     */
+    public void optimize(int index, double currentAngleRadians) {
+        if (shouldReverse(angles[index], currentAngleRadians)) {
+            speeds[index] = -speeds[index];
+            angles[index] = MathUtil.angleModulus(angles[index] + Math.PI);
+        }
+    }
+
+    /**
+     * @param targetAngleRadians The desired angle of the module in radians.
+     * @param currentAngleRadians The current angle of the module in radians.
+     * @return If the module would be faster to reach the target by reversing the drive direction.
+     */
+    public static boolean shouldReverse(double targetAngleRadians, double currentAngleRadians) {
+        return Math.abs(MathUtil.angleModulus(targetAngleRadians - currentAngleRadians)) > Math.PI / 2;
+    }
+}
@@ -1,41 +1,68 @@
 package frc.robot.util.swerve;
 
-import com.revrobotics.CANSparkMax;
-import com.revrobotics.CANSparkMaxLowLevel;
-import com.revrobotics.ControlType;
-import com.revrobotics.RelativeEncoder;
+import edu.wpi.first.math.MathUtil;
 import edu.wpi.first.math.controller.PIDController;
 import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.kinematics.SwerveModulePosition;
 import edu.wpi.first.math.kinematics.SwerveModuleState;
 import edu.wpi.first.wpilibj.DigitalInput;
-import edu.wpi.first.wpilibj.DutyCycleEncoder;
-import edu.wpi.first.wpilibj.motorcontrol.Talon;
-import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+import edu.wpi.first.wpilibj.RobotBase;
 
-import com.revrobotics.CANSparkMaxLowLevel.MotorType;
 import frc.robot.util.math.Distance;
 import frc.robot.util.math.GearRatio;
 import frc.robot.util.math.Velocity;
+import frc.robot.util.sensor.SensorSnapshot;
+import frc.robot.util.telemetry.DoubleSignal;
+import frc.robot.util.telemetry.Telemetry;
 
 import java.util.function.Supplier;
+import static frc.robot.Constants.Chassis.*;
 import static frc.robot.Constants.Global.TEST_MODE;
+import static frc.robot.Constants.TelemetryValues.DEBUG_DECIMATION;
 
 /**
  * A {@link SwerveModule} is composed of two motors and two encoders:
  * a drive motor/encoder and a turn motor/encoder. The turn motor is
  * responsible for controlling the direction the drive motor faces, essentially
  * allowing the robot to move in any direction.
+ * <p>
+ * The devices themselves are accessed through a {@link SwerveModuleIO}, which is
+ * simulated automatically when the robot code is not running on a roboRIO. Sensor
+ * readings used by the robot loop come from the {@link SensorSnapshot}, so each
+ * device is only read once per cycle.
+ * <p>
+ * With {@link frc.robot.Constants.Chassis#ONBOARD_STEERING} enabled, the turn motor's integrated encoder is
+ * seeded from the absolute encoder and the steering loop runs on the motor controller. The two encoders are
+ * compared every loop, and the integrated encoder is re-seeded if they keep disagreeing.
  */
 public class SwerveModule {
-    private final CANSparkMax driveMotor;
-    private final CANSparkMax turnMotor;
-    private final RelativeEncoder driveEncoder;
-    private final DutyCycleEncoder rotationPWMEncoder;
+    private final SwerveModuleIO io;
+    private final SensorSnapshot sensors;
+    private final int drivePositionChannel;
+    private final int driveVelocityChannel;
+    private final int absolutePositionChannel;
+    private final int turnPositionChannel;
+    private final int absoluteConnectedChannel;
+    private final boolean onboardSteering;
+    // If the integrated turn encoder has been seeded from a connected absolute encoder.
+    private boolean turnSeeded = false;
+    private int turnDisagreeLoops = 0;
     private final SwerveModuleConfig config;
     private final Rotation2d offset;
+    private final double offsetRadians;
     private final String name;
 
+    // Rotation2d is immutable, so the last one created is kept and only replaced when the angle changes.
+    // The main loop and the odometry thread each have their own.
+    private Rotation2d turnAngle = new Rotation2d();
+    private Rotation2d positionAngle = new Rotation2d();
+
+    private final DoubleSignal driveVelocitySignal;
+    private final DoubleSignal drivePowerSignal;
+    private final DoubleSignal turnPowerSignal;
+    private final DoubleSignal turnPositionSignal;
+    private final DoubleSignal driveEncoderSignal;
+
     private final double errorFactor;
     private final PIDController turnController = new PIDController(
             0.5,
@@ -67,53 +94,191 @@ public class SwerveModule {
                         SwerveModuleConfig config,
                         Rotation2d offset,
                         double errorFactor) {
-        this.driveMotor = new CANSparkMax(driveMotorId, MotorType.kBrushless);
-        this.turnMotor = new CANSparkMax(turnMotorId, MotorType.kBrushless);
-        this.rotationPWMEncoder = new DutyCycleEncoder(digitalEncoderPort);
-        this.driveEncoder = driveMotor.getEncoder();
+        this(
+                name,
+                RobotBase.isSimulation()
+                        ? new SimModuleIO(config, offset)
+                        : new SparkMaxModuleIO(
+                                driveMotorId,
+                                turnMotorId,
+                                digitalEncoderPort,
+                                DRIVE_MOTOR_CONFIG,
+                                TURN_MOTOR_CONFIG
+                        ),
+                config,
+                offset,
+                errorFactor
+        );
+    }
 
+    /**
+     * Creates a new {@link SwerveModule} instance using an existing {@link SwerveModuleIO} backend.
+     *
+     * @param io          The {@link SwerveModuleIO} used to talk to the motors and encoders.
+     * @param offset      The offset to use for driving the wheel.
+     * @param errorFactor The maximum error factor that is acceptable.
+     */
+    public SwerveModule(String name,
+                        SwerveModuleIO io,
+                        SwerveModuleConfig config,
+                        Rotation2d offset,
+                        double errorFactor) {
+        this.io = io;
         this.offset = offset;
+        this.offsetRadians = offset.getRadians();
         this.config = config;
         this.errorFactor = errorFactor;
         this.name = name;
+
+        this.sensors = SensorSnapshot.getInstance();
+        this.drivePositionChannel = sensors.register(io::getDrivePosition);
+        this.driveVelocityChannel = sensors.register(io::getDriveVelocity);
+        this.absolutePositionChannel = sensors.register(io::getAbsolutePosition);
+        this.absoluteConnectedChannel = sensors.register(() -> io.isAbsoluteEncoderConnected() ? 1 : 0);
+
+        this.onboardSteering = ONBOARD_STEERING;
+        turnController.enableContinuousInput(-Math.PI, Math.PI);
+        // A disconnected absolute encoder reads 0, so the seed waits for checkTurnEncoder() instead.
+        if (io.isAbsoluteEncoderConnected()) {
+            io.seedTurnPosition(toTurnRadians(io.getAbsolutePosition()));
+            turnSeeded = true;
+        }
+        this.turnPositionChannel = sensors.register(io::getTurnPosition);
+
+        this.driveVelocitySignal = Telemetry.number(name + ": rpm", DEBUG_DECIMATION);
+        this.drivePowerSignal = Telemetry.number(name + ": pow", DEBUG_DECIMATION);
+        this.turnPowerSignal = Telemetry.number(name + ": turn pow", DEBUG_DECIMATION);
+        this.turnPositionSignal = Telemetry.number(name + ": turn rad", DEBUG_DECIMATION);
+        this.driveEncoderSignal = Telemetry.number(name + " drive encoder: ", DEBUG_DECIMATION);
     }
 
     /**
      * @return The current {@link Velocity} of the {@link SwerveModule}
      */
     private Velocity getVelocity() {
+        return Velocity.fromMPS(getVelocityMPS());
+    }
+
+    /** @return The current velocity of the {@link SwerveModule} in meters/sec. */
+    public double getVelocityMPS() {
         // rpm -> rps -> mps
-        return config.getDriveRatio().getWheelVelocity(driveEncoder.getVelocity(), config.getWheelDiameter());
+        return config.getDriveRatio().getWheelMPS(sensors.get(driveVelocityChannel), config.getWheelDiameterMeters());
     }
 
+    /**
+     * @return The current angle of the {@link SwerveModule}. A new {@link Rotation2d} is only created when the
+     * angle has changed since the last call.
+     */
     public Rotation2d getTurnAngle() {
-        return config.getTurnRatio().motorRotationsToAngle(
-                rotationPWMEncoder.get() * 2 * Math.PI
-        ).plus(offset);
+        double radians = getTurnRadians();
+        if (radians != turnAngle.getRadians()) {
+            turnAngle = new Rotation2d(radians);
+        }
+        return turnAngle;
     }
 
-    public void setState(SwerveModuleState state, boolean isClosedLoop) {
-        state = SwerveModuleState.optimize(state, getTurnAngle());
+    /** @return The current angle of the {@link SwerveModule} in radians (-pi to +pi). */
+    public double getTurnRadians() {
+        return onboardSteering
+                ? MathUtil.angleModulus(sensors.get(turnPositionChannel))
+                : getAbsoluteRadians();
+    }
 
-        double turnPower = turnController.calculate(
-                getTurnAngle().getRadians(),
-                state.angle.getRadians()
-        );
+    /** @return The angle of the {@link SwerveModule} measured by the absolute encoder in radians (-pi to +pi). */
+    public double getAbsoluteRadians() {
+        return toTurnRadians(sensors.get(absolutePositionChannel));
+    }
+
+    /**
+     * Compares the integrated turn encoder with the absolute encoder, and re-seeds the integrated encoder if
+     * they have disagreed for {@link frc.robot.Constants.Chassis#TURN_RESEED_LOOPS} loops in a row. Short
+     * disagreements (such as the absolute encoder lagging while the module turns quickly) are ignored.
+     * Nothing is compared while the absolute encoder is disconnected, and the integrated encoder is seeded
+     * as soon as it connects if that did not happen at boot.
+     */
+    public void checkTurnEncoder() {
+        if (!onboardSteering || sensors.get(absoluteConnectedChannel) == 0) return;
 
+        double absolute = getAbsoluteRadians();
+        if (!turnSeeded) {
+            io.seedTurnPosition(absolute);
+            sensors.set(turnPositionChannel, absolute);
+            turnSeeded = true;
+            return;
+        }
+
+        if (Math.abs(MathUtil.angleModulus(absolute - sensors.get(turnPositionChannel))) <= TURN_RESEED_TOLERANCE) {
+            turnDisagreeLoops = 0;
+            return;
+        }
+
+        if (++turnDisagreeLoops >= TURN_RESEED_LOOPS) {
+            io.seedTurnPosition(absolute);
+            sensors.set(turnPositionChannel, absolute);
+            turnDisagreeLoops = 0;
+        }
+    }
+
+    /**
+     * @return The angle of the module in radians (-pi to +pi) for a raw absolute encoder reading. The absolute
+     * encoder is on the module output, so one rotation of the encoder is one rotation of the module.
+     */
+    private double toTurnRadians(double absolutePosition) {
+        return MathUtil.angleModulus(absolutePosition * 2 * Math.PI + offsetRadians);
+    }
+
+    /**
+     * Sets the state of the {@link SwerveModule} using primitive values. The state must already be optimized
+     * (see {@link SwerveKinematics#optimize(int, double)}), as it is by {@link SwerveChassis#drive(double, double, double)}.
+     *
+     * @param speedMetersPerSecond The speed of the drive wheel in meters/sec.
+     * @param angleRadians         The target angle of the module in radians.
+     * @param isClosedLoop         If the drive motor should use velocity control instead of motor power.
+     */
+    public void setState(double speedMetersPerSecond, double angleRadians, boolean isClosedLoop) {
+        applyState(speedMetersPerSecond, angleRadians, isClosedLoop, getTurnRadians());
+    }
+
+    private void applyState(double speedMetersPerSecond, double angleRadians, boolean isClosedLoop,
+                            double currentRadians) {
         if (isClosedLoop) {
-            driveMotor.getPIDController().setReference(
-                    config.getDriveRatio().getMotorRPM(
-                            Velocity.fromMPS(state.speedMetersPerSecond),
-                            config.getWheelDiameter()
-                    ),
-                    CANSparkMax.ControlType.kVelocity
-            );
+            io.setDriveVelocity(config.getDriveRatio().getMotorRPM(
+                    speedMetersPerSecond,
+                    config.getWheelDiameterMeters()
+            ));
             //drivePower = driveController.calculate(getVelocity().toMPS(), state.speedMetersPerSecond);
         } else {
-            driveMotor.set(Velocity.fromMPS(state.speedMetersPerSecond * errorFactor)
-                    .toMotorPower(config.getMaxVelocity()));
+            io.setDrivePower((speedMetersPerSecond * errorFactor) / config.getMaxVelocityMPS());
+        }
+
+        if (onboardSteering) {
+            io.setTurnPosition(angleRadians);
+        } else {
+            io.setTurnPower(turnController.calculate(currentRadians, angleRadians));
+        }
+    }
+
+    public void setState(double speedMetersPerSecond, double angleRadians) {
+        setState(speedMetersPerSecond, angleRadians, true);
+    }
+
+    /**
+     * Sets the state of the {@link SwerveModule}, reversing it first if that means turning less than 90 degrees.
+     *
+     * @param state        The {@link SwerveModuleState} to drive the module with.
+     * @param isClosedLoop If the drive motor should use velocity control instead of motor power.
+     */
+    public void setState(SwerveModuleState state, boolean isClosedLoop) {
+        double currentRadians = getTurnRadians();
+        double speedMetersPerSecond = state.speedMetersPerSecond;
+        double angleRadians = state.angle.getRadians();
+
+        if (SwerveKinematics.shouldReverse(angleRadians, currentRadians)) {
+            speedMetersPerSecond = -speedMetersPerSecond;
+            angleRadians = MathUtil.angleModulus(angleRadians + Math.PI);
         }
-        turnMotor.set(turnPower);
+
+        applyState(speedMetersPerSecond, angleRadians, isClosedLoop, currentRadians);
     }
 
     public void setState(SwerveModuleState state) { setState(state, true); }
@@ -128,7 +293,7 @@ public class SwerveModule {
      */
     public SwerveModuleState getState() {
         return new SwerveModuleState(
-                getVelocity().toMPS(),
+                getVelocityMPS(),
                 getTurnAngle()
         );
     }
@@ -144,27 +309,54 @@ public class SwerveModule {
      */
     public SwerveModulePosition getPosition() {
         return new SwerveModulePosition(
-                getDistance().toMeters(),
+                getDistanceMeters(),
                 getTurnAngle()
         );
     }
 
+    /**
+     * Reads the drive distance and turn angle straight from the devices into <code>position</code>, bypassing
+     * the {@link SensorSnapshot}. This is used by the odometry thread, which samples faster than the snapshot
+     * and must not touch the main loop's buffers. Like {@link #getTurnAngle()}, a new {@link Rotation2d} is only
+     * created when the angle has changed.
+     *
+     * @param position The {@link SwerveModulePosition} to update.
+     */
+    public void updatePosition(SwerveModulePosition position) {
+        position.distanceMeters = config.getDriveRatio().getWheelMeters(
+                io.getDrivePosition(),
+                config.getWheelDiameterMeters()
+        );
+        double radians = onboardSteering
+                ? MathUtil.angleModulus(io.getTurnPosition())
+                : toTurnRadians(io.getAbsolutePosition());
+        if (radians != positionAngle.getRadians()) {
+            positionAngle = new Rotation2d(radians);
+        }
+        position.angle = positionAngle;
+    }
+
     public double getRPM() {
-        return driveEncoder.getVelocity();
+        return sensors.get(driveVelocityChannel);
+    }
+
+    /** @return The {@link SwerveModuleIO} backend used by this {@link SwerveModule}. */
+    public SwerveModuleIO getIO() {
+        return io;
     }
 
-    public void updateDashboard(String prefix) {
-        String driveVelocity = prefix + ": rpm";
-        String drivePower = prefix + ": pow";
-        String turnPower = prefix + ": turn pow";
-        String turnPosition = prefix + ": turn rad";
+    /** @return The name of the {@link SwerveModule}, used as the prefix of its dashboard values. */
+    public String getName() {
+        return name;
+    }
 
+    public void updateDashboard() {
         if (TEST_MODE) {
-            SmartDashboard.putNumber(driveVelocity, getRPM());
-            SmartDashboard.putNumber(turnPower, turnMotor.get());
-            SmartDashboard.putNumber(turnPosition, getTurnAngle().getDegrees());
-            SmartDashboard.putNumber(drivePower, driveMotor.get());
-            SmartDashboard.putNumber(prefix + " drive encoder: ", driveEncoder.getPosition());
+            driveVelocitySignal.set(getRPM());
+            turnPowerSignal.set(io.getTurnPower());
+            turnPositionSignal.set(Math.toDegrees(getTurnRadians()));
+            drivePowerSignal.set(io.getDrivePower());
+            driveEncoderSignal.set(getRotations());
         }
     }
 
@@ -174,17 +366,23 @@ public class SwerveModule {
      * @return the elapsed distance, in rotations
      */
     public double getRotations() {
-        return driveEncoder.getPosition();
+        return sensors.get(drivePositionChannel);
     }
 
     /**
      * @return The total amount of meters the individual {@link SwerveModule} has travelled.
      */
     public Distance getDistance() {
-        return Distance.fromMeters(driveEncoder.getPosition());
+        return Distance.fromMeters(getDistanceMeters());
+    }
+
+    /** @return The total amount of meters the individual {@link SwerveModule} has travelled. */
+    public double getDistanceMeters() {
+        return config.getDriveRatio().getWheelMeters(getRotations(), config.getWheelDiameterMeters());
     }
 
     public void resetDriveEncoder() {
-        driveEncoder.setPosition(0);
+        io.resetDriveEncoder();
+        sensors.set(drivePositionChannel, 0);
     }
 }
\ No newline at end of file
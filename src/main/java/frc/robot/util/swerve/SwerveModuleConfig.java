@@ -10,15 +10,54 @@ public class SwerveModuleConfig {
     private final Distance wheelDiameter;
     private final Velocity maxVelocity;
 
+    // Cached primitive copies, so the drive loop does not need to unwrap the objects every call.
+    private final double wheelDiameterMeters;
+    private final double maxVelocityMPS;
+
+    private double maxDriveAcceleration = Double.POSITIVE_INFINITY;
+    private double maxSteerRate = Double.POSITIVE_INFINITY;
+
     public GearRatio getDriveRatio() { return this.driveRatio; }
     public GearRatio getTurnRatio() { return this.turnRatio; }
     public Distance getWheelDiameter() { return this.wheelDiameter; }
     public Velocity getMaxVelocity() { return this.maxVelocity; }
+    public double getWheelDiameterMeters() { return this.wheelDiameterMeters; }
+    public double getMaxVelocityMPS() { return this.maxVelocityMPS; }
+
+    /** @return The maximum drive acceleration of a module in meters/sec^2. */
+    public double getMaxDriveAcceleration() { return this.maxDriveAcceleration; }
+
+    /** @return The maximum steering rate of a module in rad/sec. */
+    public double getMaxSteerRate() { return this.maxSteerRate; }
+
+    /**
+     * Sets the maximum drive acceleration used by the {@link SwerveSetpointGenerator}. Unlimited by default.
+     *
+     * @param metersPerSecondSquared The maximum drive acceleration in meters/sec^2.
+     * @return The {@link SwerveModuleConfig} instance.
+     */
+    public SwerveModuleConfig setMaxDriveAcceleration(double metersPerSecondSquared) {
+        this.maxDriveAcceleration = metersPerSecondSquared;
+        return this;
+    }
+
+    /**
+     * Sets the maximum steering rate used by the {@link SwerveSetpointGenerator}. Unlimited by default.
+     *
+     * @param radiansPerSecond The maximum steering rate in rad/sec.
+     * @return The {@link SwerveModuleConfig} instance.
+     */
+    public SwerveModuleConfig setMaxSteerRate(double radiansPerSecond) {
+        this.maxSteerRate = radiansPerSecond;
+        return this;
+    }
 
     public SwerveModuleConfig(Velocity maxVelocity, GearRatio driveRatio, GearRatio turnRatio, Distance wheelDiameter) {
         this.maxVelocity = maxVelocity;
         this.driveRatio = driveRatio;
         this.turnRatio = turnRatio;
         this.wheelDiameter = wheelDiameter;
+        this.wheelDiameterMeters = wheelDiameter.toMeters();
+        this.maxVelocityMPS = maxVelocity.toMPS();
     }
 }
@@ -0,0 +1,63 @@
+package frc.robot.util.swerve;
+
+/**
+ * The hardware backend of a {@link SwerveModule}. This separates the swerve math from the devices it
+ * talks to, so the same {@link SwerveModule} can run on the robot ({@link SparkMaxModuleIO}) or
+ * headless on a desktop ({@link SimModuleIO}).
+ */
+public interface SwerveModuleIO {
+    /** @param power The drive motor power from -1.0 to +1.0 */
+    void setDrivePower(double power);
+
+    /** @param motorRPM The target velocity of the drive motor, in motor RPM. */
+    void setDriveVelocity(double motorRPM);
+
+    /** @param power The turn motor power from -1.0 to +1.0 */
+    void setTurnPower(double power);
+
+    /** @return The last power sent to the drive motor. */
+    double getDrivePower();
+
+    /** @return The last power sent to the turn motor. */
+    double getTurnPower();
+
+    /** @return The position of the drive motor, in motor rotations. */
+    double getDrivePosition();
+
+    /** @return The velocity of the drive motor, in motor RPM. */
+    double getDriveVelocity();
+
+    /** @return The raw reading of the absolute turn encoder, in rotations. */
+    double getAbsolutePosition();
+
+    /** @return If the absolute turn encoder is connected, so {@link #getAbsolutePosition()} can be trusted. */
+    default boolean isAbsoluteEncoderConnected() { return true; }
+
+    /**
+     * Steers the module to an angle using the position loop on the motor controller.
+     *
+     * @param radians The target angle of the module in radians, wrapped to the closest direction.
+     */
+    void setTurnPosition(double radians);
+
+    /** @return The angle of the module measured by the turn motor's integrated encoder, in radians. */
+    double getTurnPosition();
+
+    /**
+     * Sets the turn motor's integrated encoder to the angle of the module, normally read from the
+     * absolute encoder.
+     *
+     * @param radians The current angle of the module in radians.
+     */
+    void seedTurnPosition(double radians);
+
+    /** Resets the drive motor position to zero. */
+    void resetDriveEncoder();
+
+    /**
+     * Advances any simulated devices by <code>dtSeconds</code>. Hardware backends do nothing here.
+     *
+     * @param dtSeconds The time since the last update, in seconds.
+     */
+    default void updateSimulation(double dtSeconds) {}
+}
@@ -1,15 +1,20 @@
 package frc.robot.util.swerve;
 
+import edu.wpi.first.math.MathUtil;
 import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.kinematics.SwerveDriveOdometry;
 import edu.wpi.first.math.kinematics.SwerveModulePosition;
-import edu.wpi.first.math.kinematics.SwerveModuleState;
-import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+import edu.wpi.first.wpilibj.Notifier;
+import edu.wpi.first.wpilibj.Timer;
+import frc.robot.util.telemetry.DoubleArraySignal;
+import frc.robot.util.telemetry.Telemetry;
 
+import java.util.function.DoubleUnaryOperator;
 import java.util.function.Supplier;
 
 import static frc.robot.Constants.Global.TEST_MODE;
+import static frc.robot.Constants.TelemetryValues.DEBUG_DECIMATION;
 
 
 /**
@@ -21,79 +26,283 @@ import static frc.robot.Constants.Global.TEST_MODE;
  * it'll be wrong. if it doesn't update frequently enough, the angle of each
  * of the wheels won't be accounted for properly, which will also make
  * the robot's position wrong
+ * <p>
+ * the odometry can either be updated from the main robot loop (see {@link #shouldUpdate()}),
+ * or on its own {@link Notifier} thread using {@link #startThread(double)}. every update is
+ * written with its timestamp into a ring buffer, and {@link #getPose()} always reads the newest
+ * entry without locking. the heading is looked up by the time the modules were read, so a gyro which
+ * updates at its own rate is still matched to the module positions of each update. the last
+ * {@link #HISTORY_SECONDS} of poses can be looked up by timestamp
+ * using {@link #getPoseAt(double, TimestampedPose)}, which is useful for delayed measurements.
  */
 public class SwerveOdometry {
+    /** The amount of poses kept in the ring buffer. Must be a power of two. */
+    private static final int BUFFER_SIZE = 1024;
+    private static final int BUFFER_MASK = BUFFER_SIZE - 1;
+
+    /**
+     * The most entries {@link #getPoseAt(double, TimestampedPose)} will search. This is half of the buffer,
+     * so the writer can never be overwriting an entry while it is being interpolated.
+     */
+    private static final int MAX_HISTORY_ENTRIES = BUFFER_SIZE / 2;
+
+    /** How far back (in seconds) poses can be looked up by timestamp. */
+    public static final double HISTORY_SECONDS = 1.5;
+
     private final SwerveChassis chassis;
-    private final Supplier<Rotation2d> gyroSupplier;
+    private final DoubleUnaryOperator headingAt;
     private final Supplier<SwerveModulePosition[]> positionSupplier;
     private final SwerveDriveOdometry odometry;
-    private Pose2d robotPose;
+    // Rotation2d is immutable, so the last heading is kept and only replaced when it changes.
+    private Rotation2d heading = new Rotation2d();
     private double lastUpdateTimeMs;
 
+    private final double[] timestamps = new double[BUFFER_SIZE];
+    private final double[] poseX = new double[BUFFER_SIZE];
+    private final double[] poseY = new double[BUFFER_SIZE];
+    private final double[] poseTheta = new double[BUFFER_SIZE];
+
+    // The sequence number of the newest entry. The volatile write publishes the arrays above to readers.
+    private volatile long sequence = -1;
+
+    private Notifier notifier;
+
+    // Each module's state as [velocity (m/s), angle (deg)].
+    private final DoubleArraySignal[] stateSignals;
+
+    /**
+     * @param chassis          The {@link SwerveChassis} the odometry tracks.
+     * @param headingAt        Returns the heading of the robot in radians (counter-clockwise positive) at an FPGA
+     *                         timestamp in seconds, such as {@link SwerveAHRS#getAngleAt(double)} converted.
+     * @param positionSupplier Reads the current position of every module.
+     * @param robotPose        The starting pose of the robot.
+     */
     public SwerveOdometry(SwerveChassis chassis,
-                          Supplier<Rotation2d> gyroSupplier,
+                          DoubleUnaryOperator headingAt,
                           Supplier<SwerveModulePosition[]> positionSupplier,
                           Pose2d robotPose) {
         this.chassis = chassis;
-        this.gyroSupplier = gyroSupplier;
+        this.headingAt = headingAt;
         this.positionSupplier = positionSupplier;
-        this.robotPose = robotPose;
+        double now = Timer.getFPGATimestamp();
         odometry = new SwerveDriveOdometry(
                 chassis.getSwerveKinematics(),
-                gyroSupplier.get(),
+                getHeading(now),
                 positionSupplier.get(),
                 robotPose
         );
+        record(robotPose, now);
+
+        stateSignals = new DoubleArraySignal[chassis.getModuleCount()];
+        for (int i = 0; i < stateSignals.length; i++) {
+            stateSignals[i] = Telemetry.numbers(chassis.getModule(i).getName() + " State", 2, DEBUG_DECIMATION);
+        }
     }
 
-    public static String formatDashboard(SwerveModuleState state) {
-        /*
-        return MessageFormat.format(
-                "v: {1} a: {2} deg",
-                state.speedMetersPerSecond,
-                state.angle.getDegrees()
-        );
+    /**
+     * Starts updating the odometry on its own {@link Notifier} thread. The gyro and module positions are
+     * sampled together on every update, so the period should be much shorter than the robot loop.
+     *
+     * @param periodSeconds The period between updates in seconds (0.005 for 200 Hz)
+     */
+    public void startThread(double periodSeconds) {
+        if (notifier == null) {
+            notifier = new Notifier(this::update);
+            notifier.setName("SwerveOdometry");
+        }
+        notifier.startPeriodic(periodSeconds);
+    }
 
-         */
-        return "v: " + state.speedMetersPerSecond + " a: " + state.angle.getDegrees();
+    /** Stops the odometry thread started by {@link #startThread(double)}. */
+    public void stopThread() {
+        if (notifier != null) {
+            notifier.stop();
+            notifier.close();
+            notifier = null;
+        }
     }
 
-    public void update() {
-        // each of these states is m per sec and omega rad per sec
-        SwerveModuleState frontRightState = chassis.getFrontRight().getState();
-        SwerveModuleState frontLeftState = chassis.getFrontLeft().getState();
-        SwerveModuleState backRightState = chassis.getBackRight().getState();
-        SwerveModuleState backLeftState = chassis.getBackLeft().getState();
+    /** @return If the odometry is being updated on its own thread. */
+    public boolean isThreaded() {
+        return notifier != null;
+    }
 
-        if (TEST_MODE) {
-            SmartDashboard.putString("FR State", formatDashboard(frontRightState));
-            SmartDashboard.putString("FL State", formatDashboard(frontLeftState));
-            SmartDashboard.putString("BR State", formatDashboard(backRightState));
-            SmartDashboard.putString("BL State", formatDashboard(backLeftState));
+    /** Reads the modules, and updates the pose using the heading from the moment they were read. */
+    public void update() {
+        synchronized (odometry) {
+            double now = Timer.getFPGATimestamp();
+            SwerveModulePosition[] positions = positionSupplier.get();
+            record(odometry.update(getHeading(now), positions), now);
         }
 
-        robotPose = odometry.update(
-                gyroSupplier.get(),
-                positionSupplier.get()
-        );
-
         lastUpdateTimeMs = System.currentTimeMillis();
     }
 
+    public void updateDashboard() {
+        if (TEST_MODE) {
+            // each of these states is m per sec and degrees
+            for (int i = 0; i < stateSignals.length; i++) {
+                SwerveModule module = chassis.getModule(i);
+                stateSignals[i].set(module.getVelocityMPS(), Math.toDegrees(module.getTurnRadians()));
+            }
+        }
+    }
+
     public void resetOdometry() {
-        odometry.resetPosition(gyroSupplier.get(), positionSupplier.get(), new Pose2d());
+        resetOdometry(new Pose2d());
     }
 
+    /**
+     * Resets the odometry so {@link #getPose()} returns <code>pose</code>.
+     *
+     * @param pose The field pose of the robot.
+     */
     public void resetOdometry(Pose2d pose) {
-        odometry.resetPosition(gyroSupplier.get(), positionSupplier.get(), pose);
+        synchronized (odometry) {
+            double now = Timer.getFPGATimestamp();
+            odometry.resetPosition(getHeading(now), positionSupplier.get(), pose);
+            record(pose, now);
+        }
+    }
+
+    /** @return The heading at <code>timestamp</code>. Must only be called while holding the odometry lock. */
+    private Rotation2d getHeading(double timestamp) {
+        double radians = headingAt.applyAsDouble(timestamp);
+        if (radians != heading.getRadians()) {
+            heading = new Rotation2d(radians);
+        }
+        return heading;
+    }
+
+    /**
+     * Writes a new pose into the ring buffer. Must only be called by one thread at a time, which is
+     * guaranteed by holding the <code>odometry</code> lock.
+     *
+     * @param pose      The new pose.
+     * @param timestamp The FPGA timestamp (in seconds) the pose was measured at.
+     */
+    private void record(Pose2d pose, double timestamp) {
+        long next = sequence + 1;
+        int index = (int) (next & BUFFER_MASK);
+
+        timestamps[index] = timestamp;
+        poseX[index] = pose.getX();
+        poseY[index] = pose.getY();
+        poseTheta[index] = pose.getRotation().getRadians();
+
+        sequence = next;
+    }
+
+    private int newestIndex() {
+        return (int) (sequence & BUFFER_MASK);
     }
 
     public Pose2d getPose() {
-        return new Pose2d(
-                -robotPose.getX(),
-                -robotPose.getY(),
-                robotPose.getRotation()
-        );
+        int index = newestIndex();
+        return new Pose2d(poseX[index], poseY[index], new Rotation2d(poseTheta[index]));
+    }
+
+    /**
+     * Copies the newest pose into <code>out</code>, with every value taken from the same sample. If the
+     * odometry thread laps the buffer while the entry is copied, it is read again.
+     *
+     * @param out The {@link TimestampedPose} to write the newest pose into.
+     */
+    public void getLatestPose(TimestampedPose out) {
+        long seq;
+        do {
+            seq = sequence;
+            copyEntry(seq, out);
+        } while (sequence - seq >= BUFFER_SIZE - 1);
+    }
+
+    /**
+     * @return The X position of the newest pose in meters. The odometry thread may publish between calls, so
+     * use {@link #getLatestPose(TimestampedPose)} when more than one value is needed.
+     */
+    public double getX() { return poseX[newestIndex()]; }
+
+    /** @return The Y position of the newest pose in meters. See {@link #getX()}. */
+    public double getY() { return poseY[newestIndex()]; }
+
+    /** @return The heading of the newest pose in radians. See {@link #getX()}. */
+    public double getHeadingRadians() { return poseTheta[newestIndex()]; }
+
+    /** @return The FPGA timestamp (in seconds) of the newest pose. */
+    public double getLastTimestamp() { return timestamps[newestIndex()]; }
+
+    /**
+     * Looks up the pose of the robot at a previous point in time, interpolating between the two
+     * closest samples. This uses a binary search over the history and creates no objects.
+     * <p>
+     * If the timestamp is newer than the newest pose, or older than {@link #HISTORY_SECONDS}, the
+     * closest pose available is used instead.
+     *
+     * @param timestamp The FPGA timestamp (in seconds) to get the pose at.
+     * @param out       The {@link TimestampedPose} to write the result into.
+     * @return If the timestamp was inside the recorded history.
+     */
+    public boolean getPoseAt(double timestamp, TimestampedPose out) {
+        long newest = sequence;
+        long oldest = Math.max(0, newest - MAX_HISTORY_ENTRIES + 1);
+
+        // Skip any entries which have fallen out of the history window.
+        oldest = firstAtOrAfter(oldest, newest, timestamps[(int) (newest & BUFFER_MASK)] - HISTORY_SECONDS);
+
+        if (timestamp >= timestamps[(int) (newest & BUFFER_MASK)]) {
+            copyEntry(newest, out);
+            return timestamp == out.timestamp;
+        }
+        if (timestamp <= timestamps[(int) (oldest & BUFFER_MASK)]) {
+            copyEntry(oldest, out);
+            return timestamp == out.timestamp;
+        }
+
+        // The sample after the timestamp. Since the edges were checked above, this is always > oldest.
+        long after = firstAtOrAfter(oldest, newest, timestamp);
+        int a = (int) ((after - 1) & BUFFER_MASK);
+        int b = (int) (after & BUFFER_MASK);
+
+        double t = (timestamp - timestamps[a]) / (timestamps[b] - timestamps[a]);
+        out.timestamp = timestamp;
+        out.x = poseX[a] + (poseX[b] - poseX[a]) * t;
+        out.y = poseY[a] + (poseY[b] - poseY[a]) * t;
+        out.theta = MathUtil.angleModulus(poseTheta[a] + MathUtil.angleModulus(poseTheta[b] - poseTheta[a]) * t);
+        return true;
+    }
+
+    /**
+     * Looks up the pose of the robot at a previous point in time. This creates a new {@link Pose2d},
+     * use {@link #getPoseAt(double, TimestampedPose)} in code that runs every loop.
+     *
+     * @param timestamp The FPGA timestamp (in seconds) to get the pose at.
+     * @return The interpolated {@link Pose2d} at the timestamp.
+     */
+    public Pose2d getPoseAt(double timestamp) {
+        TimestampedPose pose = new TimestampedPose();
+        getPoseAt(timestamp, pose);
+        return pose.toPose2d();
+    }
+
+    /** @return The first sequence number in [low, high] with a timestamp at or after <code>timestamp</code>. */
+    private long firstAtOrAfter(long low, long high, double timestamp) {
+        while (low < high) {
+            long mid = (low + high) >>> 1;
+            if (timestamps[(int) (mid & BUFFER_MASK)] < timestamp) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private void copyEntry(long seq, TimestampedPose out) {
+        int index = (int) (seq & BUFFER_MASK);
+        out.timestamp = timestamps[index];
+        out.x = poseX[index];
+        out.y = poseY[index];
+        out.theta = poseTheta[index];
     }
 
     public boolean shouldUpdate() {
@@ -101,4 +310,4 @@ public class SwerveOdometry {
         // updating it too frequently may cause very inaccurate results
         return System.currentTimeMillis() - 20 >= lastUpdateTimeMs;
     }
-}
\ No newline at end of file
+}
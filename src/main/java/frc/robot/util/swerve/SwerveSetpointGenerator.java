@@ -0,0 +1,146 @@
+package frc.robot.util.swerve;
+
+import edu.wpi.first.math.MathUtil;
+
+/**
+ * A {@link SwerveSetpointGenerator} sits between the requested chassis speeds and the modules, and limits how
+ * quickly the setpoints can change:
+ * <ul>
+ *     <li>The chassis translation and rotation are acceleration-limited.</li>
+ *     <li>Each module's target speed is scaled by the cosine of its angle error, so a module which still has to
+ *     turn does not drive at full speed in the wrong direction.</li>
+ *     <li>Each module's target angle is limited to the steering rate in the {@link SwerveModuleConfig}.</li>
+ *     <li>Each module's drive speed is limited to the drive acceleration in the {@link SwerveModuleConfig}. All
+ *     modules are scaled by the same amount, so the robot keeps moving in a consistent direction.</li>
+ * </ul>
+ * The generator writes its output back into the {@link SwerveKinematics} buffers, and creates no objects.
+ */
+public class SwerveSetpointGenerator {
+    private final SwerveKinematics kinematics;
+    private final double maxAcceleration;
+    private final double maxAngularAcceleration;
+    private final double maxSpeed;
+    private final double maxDriveAcceleration;
+    private final double maxSteerRate;
+
+    private final double[] lastSpeeds;
+    private final double[] lastAngles;
+    private double lastVx, lastVy, lastOmega;
+    private boolean hasLast = false;
+    // [vx, vy, omega] measured from the modules on reset.
+    private final double[] measuredSpeeds = new double[3];
+
+    /**
+     * @param kinematics             The {@link SwerveKinematics} engine to generate setpoints with.
+     * @param config                 The {@link SwerveModuleConfig} with the per-module limits.
+     * @param maxAcceleration        The maximum chassis acceleration in meters/sec^2.
+     * @param maxAngularAcceleration The maximum chassis angular acceleration in rad/sec^2.
+     */
+    public SwerveSetpointGenerator(SwerveKinematics kinematics,
+                                   SwerveModuleConfig config,
+                                   double maxAcceleration,
+                                   double maxAngularAcceleration) {
+        this.kinematics = kinematics;
+        this.maxAcceleration = maxAcceleration;
+        this.maxAngularAcceleration = maxAngularAcceleration;
+        this.maxSpeed = config.getMaxVelocityMPS();
+        this.maxDriveAcceleration = config.getMaxDriveAcceleration();
+        this.maxSteerRate = config.getMaxSteerRate();
+        this.lastSpeeds = new double[kinematics.getModuleCount()];
+        this.lastAngles = new double[kinematics.getModuleCount()];
+    }
+
+    /**
+     * Starts the next setpoint from the current state of the modules instead of the last setpoint. This
+     * should be called whenever the modules have not been following the setpoints, such as after being disabled.
+     * The chassis speeds are calculated from the measured module states, so a robot which is still moving
+     * is slowed down at the acceleration limit instead of being commanded to stop at once.
+     *
+     * @param modules The {@link SwerveModule}s, ordered by module index.
+     */
+    public void reset(SwerveModule[] modules) {
+        for (int i = 0; i < lastSpeeds.length; i++) {
+            lastSpeeds[i] = modules[i].getVelocityMPS();
+            lastAngles[i] = modules[i].getTurnRadians();
+        }
+        kinematics.toChassisSpeeds(lastSpeeds, lastAngles, measuredSpeeds);
+        lastVx = measuredSpeeds[0];
+        lastVy = measuredSpeeds[1];
+        lastOmega = measuredSpeeds[2];
+        hasLast = true;
+    }
+
+    /**
+     * Generates the next module setpoints. The result is written into the {@link SwerveKinematics} buffers,
+     * see {@link SwerveKinematics#getSpeed(int)} and {@link SwerveKinematics#getAngle(int)}.
+     *
+     * @param vx      X-direction m/s (+ forward, - reverse)
+     * @param vy      Y-direction m/s (+ left, - right)
+     * @param omega   Yaw rad/s (+ left, - right)
+     * @param modules The {@link SwerveModule}s, ordered by module index.
+     * @param dt      The time since the last setpoint in seconds.
+     */
+    public void generate(double vx, double vy, double omega, SwerveModule[] modules, double dt) {
+        if (!hasLast) {
+            reset(modules);
+        }
+
+        // Limit the chassis acceleration, keeping the direction of the change in translation.
+        double dvx = vx - lastVx;
+        double dvy = vy - lastVy;
+        double dv = Math.sqrt(dvx * dvx + dvy * dvy);
+        double maxDv = maxAcceleration * dt;
+        if (dv > maxDv) {
+            dvx *= maxDv / dv;
+            dvy *= maxDv / dv;
+        }
+        lastVx += dvx;
+        lastVy += dvy;
+
+        double maxDOmega = maxAngularAcceleration * dt;
+        lastOmega += MathUtil.clamp(omega - lastOmega, -maxDOmega, maxDOmega);
+
+        kinematics.toModuleStates(lastVx, lastVy, lastOmega);
+        kinematics.desaturate(maxSpeed);
+
+        double maxDSpeed = maxDriveAcceleration * dt;
+        double maxDAngle = maxSteerRate * dt;
+        double scale = 1;
+
+        for (int i = 0; i < lastSpeeds.length; i++) {
+            double currentAngle = modules[i].getTurnRadians();
+            kinematics.optimize(i, currentAngle);
+
+            double targetSpeed = kinematics.getSpeed(i) * Math.cos(kinematics.getAngle(i) - currentAngle);
+            double targetAngle = kinematics.getAngle(i);
+
+            // If the optimized target is flipped from the last setpoint, flip the last setpoint the same way,
+            // so the speeds are compared in the same direction.
+            double angleDelta = MathUtil.angleModulus(targetAngle - lastAngles[i]);
+            if (Math.abs(angleDelta) > Math.PI / 2) {
+                lastSpeeds[i] = -lastSpeeds[i];
+                lastAngles[i] = MathUtil.angleModulus(lastAngles[i] + Math.PI);
+                angleDelta = MathUtil.angleModulus(targetAngle - lastAngles[i]);
+            }
+
+            // The wheel angle does not matter while it is stopped.
+            if (targetSpeed != 0 || lastSpeeds[i] != 0) {
+                lastAngles[i] = MathUtil.angleModulus(lastAngles[i] + MathUtil.clamp(angleDelta, -maxDAngle, maxDAngle));
+            } else {
+                lastAngles[i] = targetAngle;
+            }
+
+            double speedDelta = Math.abs(targetSpeed - lastSpeeds[i]);
+            if (speedDelta > maxDSpeed) {
+                scale = Math.min(scale, maxDSpeed / speedDelta);
+            }
+
+            kinematics.setState(i, targetSpeed, lastAngles[i]);
+        }
+
+        for (int i = 0; i < lastSpeeds.length; i++) {
+            lastSpeeds[i] += (kinematics.getSpeed(i) - lastSpeeds[i]) * scale;
+            kinematics.setState(i, lastSpeeds[i], lastAngles[i]);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package frc.robot.util.swerve;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+
+/**
+ * A mutable, primitive pose with the FPGA timestamp it was measured at. This is meant to be
+ * allocated once and filled by {@link SwerveOdometry#getPoseAt(double, TimestampedPose)} so
+ * the pose history can be queried every loop without creating any objects.
+ */
+public class TimestampedPose {
+    public double timestamp;
+    public double x;
+    public double y;
+    public double theta;
+
+    /** @return A new {@link Pose2d} with the values of this pose. */
+    public Pose2d toPose2d() {
+        return new Pose2d(x, y, new Rotation2d(theta));
+    }
+}
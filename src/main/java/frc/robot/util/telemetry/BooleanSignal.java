@@ -0,0 +1,20 @@
+package frc.robot.util.telemetry;
+
+import edu.wpi.first.networktables.BooleanPublisher;
+
+/** A boolean published to the dashboard through a {@link BooleanPublisher}. */
+public class BooleanSignal extends TelemetrySignal {
+    private final BooleanPublisher publisher;
+
+    BooleanSignal(String key, int decimation, BooleanPublisher publisher) {
+        super(key, decimation);
+        this.publisher = publisher;
+    }
+
+    /** @param value The value to publish, if this update is not decimated. */
+    public void set(boolean value) {
+        if (shouldPublish()) {
+            publisher.set(value);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package frc.robot.util.telemetry;
+
+import edu.wpi.first.hal.can.CANJNI;
+import edu.wpi.first.hal.can.CANStatus;
+import edu.wpi.first.wpilibj.RobotController;
+import frc.robot.util.log.DataRecorder;
+import frc.robot.util.log.LogChannel;
+
+/**
+ * Tracks the health of the CAN bus over time, so it can be shown that the bus has headroom after changing
+ * status frame rates. Utilization is published as the latest sample along with the average and peak over a
+ * window. The bus-off and TX-full counters only ever count up, so they are published as the amount of new
+ * events in the last window instead. The receive and transmit error counters are the controller's current
+ * error levels, which are published as is.
+ * <p>
+ * Unlike {@link RobotController#getCANStatus()}, a single {@link CANStatus} is reused for every sample.
+ */
+public class CANBusMonitor {
+    private final CANStatus status = new CANStatus();
+    private final int windowSamples;
+
+    private final DoubleSignal utilization = Telemetry.number("CAN/Utilization");
+    private final DoubleSignal averageUtilization = Telemetry.number("CAN/Average Utilization");
+    private final DoubleSignal peakUtilization = Telemetry.number("CAN/Peak Utilization");
+    private final DoubleSignal busOff = Telemetry.number("CAN/Bus Off");
+    private final DoubleSignal txFull = Telemetry.number("CAN/TX Full");
+    private final DoubleSignal receiveErrors = Telemetry.number("CAN/Receive Errors");
+    private final DoubleSignal transmitErrors = Telemetry.number("CAN/Transmit Errors");
+    private final DoubleSignal maxUtilization = Telemetry.number("CAN/Max Utilization");
+
+    // [utilization, bus off count, tx full count, receive errors, transmit errors]
+    private final LogChannel log = DataRecorder.getInstance().register("CAN", 5);
+
+    private int samples;
+    private double utilizationSum, windowPeak, allTimePeak;
+    private int lastBusOff = -1, lastTxFull = -1;
+
+    /** @param windowSamples The amount of samples averaged before the window values are published. */
+    public CANBusMonitor(int windowSamples) {
+        this.windowSamples = windowSamples;
+    }
+
+    /** Samples the bus. Meant to be scheduled with {@link edu.wpi.first.wpilibj.TimedRobot#addPeriodic}. */
+    public void update() {
+        CANJNI.getCANStatus(status);
+
+        double percent = status.percentBusUtilization * 100;
+        utilization.set(percent);
+        receiveErrors.set(status.receiveErrorCount);
+        transmitErrors.set(status.transmitErrorCount);
+        log.values()[0] = percent;
+        log.values()[1] = status.busOffCount;
+        log.values()[2] = status.txFullCount;
+        log.values()[3] = status.receiveErrorCount;
+        log.values()[4] = status.transmitErrorCount;
+        log.append();
+
+        if (lastBusOff < 0) {
+            lastBusOff = status.busOffCount;
+            lastTxFull = status.txFullCount;
+        }
+
+        utilizationSum += percent;
+        windowPeak = Math.max(windowPeak, percent);
+        if (++samples < windowSamples) return;
+
+        allTimePeak = Math.max(allTimePeak, windowPeak);
+        averageUtilization.set(utilizationSum / samples);
+        peakUtilization.set(windowPeak);
+        maxUtilization.set(allTimePeak);
+        busOff.set(status.busOffCount - lastBusOff);
+        txFull.set(status.txFullCount - lastTxFull);
+
+        lastBusOff = status.busOffCount;
+        lastTxFull = status.txFullCount;
+        samples = 0;
+        utilizationSum = 0;
+        windowPeak = 0;
+    }
+}
@@ -0,0 +1,45 @@
+package frc.robot.util.telemetry;
+
+import edu.wpi.first.networktables.DoubleArrayPublisher;
+
+/**
+ * A fixed-length array of numbers published to the dashboard through a {@link DoubleArrayPublisher}. The
+ * values are written into a buffer owned by the signal, so publishing them creates no objects. The setter used
+ * must match the length of the signal.
+ */
+public class DoubleArraySignal extends TelemetrySignal {
+    private final DoubleArrayPublisher publisher;
+    private final double[] values;
+
+    DoubleArraySignal(String key, int decimation, int length, DoubleArrayPublisher publisher) {
+        super(key, decimation);
+        this.publisher = publisher;
+        this.values = new double[length];
+    }
+
+    public void set(double a, double b) {
+        checkLength(2);
+        if (shouldPublish()) {
+            values[0] = a;
+            values[1] = b;
+            publisher.set(values);
+        }
+    }
+
+    public void set(double a, double b, double c) {
+        checkLength(3);
+        if (shouldPublish()) {
+            values[0] = a;
+            values[1] = b;
+            values[2] = c;
+            publisher.set(values);
+        }
+    }
+
+    private void checkLength(int length) {
+        if (values.length != length) {
+            throw new IllegalArgumentException(
+                    "Signal " + getKey() + " has " + values.length + " values, but was set with " + length);
+        }
+    }
+}
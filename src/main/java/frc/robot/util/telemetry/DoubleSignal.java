@@ -0,0 +1,20 @@
+package frc.robot.util.telemetry;
+
+import edu.wpi.first.networktables.DoublePublisher;
+
+/** A number published to the dashboard through a {@link DoublePublisher}. */
+public class DoubleSignal extends TelemetrySignal {
+    private final DoublePublisher publisher;
+
+    DoubleSignal(String key, int decimation, DoublePublisher publisher) {
+        super(key, decimation);
+        this.publisher = publisher;
+    }
+
+    /** @param value The value to publish, if this update is not decimated. */
+    public void set(double value) {
+        if (shouldPublish()) {
+            publisher.set(value);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package frc.robot.util.telemetry;
+
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+
+/**
+ * Creates telemetry signals which publish to the same table as {@link SmartDashboard}, so existing dashboard
+ * layouts keep working. Unlike {@link SmartDashboard#putNumber(String, double)}, the NetworkTables topic of a
+ * signal is only looked up once when it is created, and every update after that goes straight to its
+ * typed publisher without building a key or allocating.
+ * <p>
+ * Signals should be created once (in a constructor) and kept in a field.
+ */
+public class Telemetry {
+    private static final NetworkTable TABLE = NetworkTableInstance.getDefault().getTable("SmartDashboard");
+
+    private Telemetry() {}
+
+    /**
+     * @param key        The key of the number on the dashboard.
+     * @param decimation The amount of updates per publish.
+     * @return A new {@link DoubleSignal}.
+     */
+    public static DoubleSignal number(String key, int decimation) {
+        return new DoubleSignal(key, decimation, TABLE.getDoubleTopic(key).publish());
+    }
+
+    public static DoubleSignal number(String key) { return number(key, 1); }
+
+    /**
+     * @param key        The key of the boolean on the dashboard.
+     * @param decimation The amount of updates per publish.
+     * @return A new {@link BooleanSignal}.
+     */
+    public static BooleanSignal bool(String key, int decimation) {
+        return new BooleanSignal(key, decimation, TABLE.getBooleanTopic(key).publish());
+    }
+
+    public static BooleanSignal bool(String key) { return bool(key, 1); }
+
+    /**
+     * @param key        The key of the array on the dashboard.
+     * @param length     The amount of numbers in the array.
+     * @param decimation The amount of updates per publish.
+     * @return A new {@link DoubleArraySignal}.
+     */
+    public static DoubleArraySignal numbers(String key, int length, int decimation) {
+        return new DoubleArraySignal(key, decimation, length, TABLE.getDoubleArrayTopic(key).publish());
+    }
+
+    public static DoubleArraySignal numbers(String key, int length) { return numbers(key, length, 1); }
+}
@@ -0,0 +1,44 @@
+package frc.robot.util.telemetry;
+
+/**
+ * The base of every {@link Telemetry} signal. A signal is only published once every <code>decimation</code>
+ * updates, so values which are updated every loop but only read by a person can be sent less often.
+ */
+public abstract class TelemetrySignal {
+    private final String key;
+    private int decimation;
+    private int counter;
+
+    protected TelemetrySignal(String key, int decimation) {
+        this.key = key;
+        this.decimation = Math.max(1, decimation);
+    }
+
+    /**
+     * Counts an update, and checks if this update should be published.
+     *
+     * @return If the value should be published.
+     */
+    protected boolean shouldPublish() {
+        if (--counter > 0) return false;
+        counter = decimation;
+        return true;
+    }
+
+    /**
+     * Sets how many updates pass between each publish. A decimation of 1 publishes every update.
+     *
+     * @param decimation The amount of updates per publish.
+     * @return The {@link TelemetrySignal} instance.
+     */
+    public TelemetrySignal setDecimation(int decimation) {
+        this.decimation = Math.max(1, decimation);
+        return this;
+    }
+
+    /** @return The amount of updates per publish. */
+    public int getDecimation() { return decimation; }
+
+    /** @return The key of the signal on the dashboard. */
+    public String getKey() { return key; }
+}
@@ -0,0 +1,125 @@
+package frc.robot.util.auto;
+
+import com.pathplanner.lib.PathConstraints;
+import com.pathplanner.lib.PathPlanner;
+import com.pathplanner.lib.PathPlannerTrajectory;
+import com.pathplanner.lib.PathPlannerTrajectory.PathPlannerState;
+import com.pathplanner.lib.PathPoint;
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/** Encodes a generated PathPlanner trajectory, and checks that sampling it gives back the original states. */
+class BinaryTrajectoryTest {
+    private static final double EPSILON = 1e-9;
+
+    private static PathPlannerTrajectory trajectory;
+
+    @BeforeAll
+    static void setup() {
+        trajectory = PathPlanner.generatePath(
+                new PathConstraints(3, 2),
+                new PathPoint(new Translation2d(0, 0), Rotation2d.fromDegrees(0), Rotation2d.fromDegrees(170)),
+                new PathPoint(new Translation2d(2, 1), Rotation2d.fromDegrees(45), Rotation2d.fromDegrees(-150)),
+                new PathPoint(new Translation2d(4, 1), Rotation2d.fromDegrees(0), Rotation2d.fromDegrees(-90))
+        );
+    }
+
+    private static void assertState(PathPlannerState expected, TrajectorySample actual) {
+        assertEquals(expected.poseMeters.getX(), actual.x, EPSILON);
+        assertEquals(expected.poseMeters.getY(), actual.y, EPSILON);
+        assertEquals(expected.poseMeters.getRotation().getRadians(), actual.heading, EPSILON);
+        assertEquals(expected.holonomicRotation.getRadians(), actual.rotation, EPSILON);
+        assertEquals(expected.velocityMetersPerSecond, actual.velocity, EPSILON);
+        assertEquals(expected.accelerationMetersPerSecondSq, actual.acceleration, EPSILON);
+        assertEquals(expected.curvatureRadPerMeter, actual.curvature, EPSILON);
+        assertEquals(expected.holonomicAngularVelocityRadPerSec, actual.angularVelocity, EPSILON);
+    }
+
+    @Test
+    void sampleReturnsEveryState() {
+        BinaryTrajectory binary = BinaryTrajectory.of(trajectory);
+        TrajectorySample sample = new TrajectorySample();
+
+        assertEquals(trajectory.getStates().size(), binary.getStateCount());
+        assertEquals(trajectory.getTotalTimeSeconds(), binary.getTotalTime(), EPSILON);
+        for (int i = 0; i < binary.getStateCount(); i++) {
+            PathPlannerState state = trajectory.getState(i);
+            binary.sample(state.timeSeconds, sample);
+            assertEquals(state.timeSeconds, sample.time, EPSILON);
+            assertState(state, sample);
+        }
+    }
+
+    @Test
+    void sampleInterpolatesBetweenStates() {
+        BinaryTrajectory binary = BinaryTrajectory.of(trajectory);
+        TrajectorySample sample = new TrajectorySample();
+
+        int index = binary.getStateCount() / 2;
+        PathPlannerState before = trajectory.getState(index);
+        PathPlannerState after = trajectory.getState(index + 1);
+        binary.sample((before.timeSeconds + after.timeSeconds) / 2, sample);
+
+        assertEquals((before.poseMeters.getX() + after.poseMeters.getX()) / 2, sample.x, EPSILON);
+        assertEquals((before.poseMeters.getY() + after.poseMeters.getY()) / 2, sample.y, EPSILON);
+        assertEquals((before.velocityMetersPerSecond + after.velocityMetersPerSecond) / 2, sample.velocity, EPSILON);
+        double rotation = before.holonomicRotation.getRadians();
+        double halfTurn = MathUtil.angleModulus(after.holonomicRotation.getRadians() - rotation) / 2;
+        assertEquals(MathUtil.angleModulus(rotation + halfTurn), sample.rotation, EPSILON);
+    }
+
+    @Test
+    void sampleClampsOutsideTrajectory() {
+        BinaryTrajectory binary = BinaryTrajectory.of(trajectory);
+        TrajectorySample sample = new TrajectorySample();
+
+        binary.sample(-1, sample);
+        assertState(trajectory.getInitialState(), sample);
+
+        binary.sample(binary.getTotalTime() + 1, sample);
+        assertState(trajectory.getEndState(), sample);
+    }
+
+    @Test
+    void mapReadsEncodedFile(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("Test" + BinaryTrajectory.EXTENSION);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = BinaryTrajectory.encode(trajectory);
+            while (buffer.hasRemaining()) channel.write(buffer);
+        }
+
+        BinaryTrajectory binary = BinaryTrajectory.map(file);
+        TrajectorySample sample = new TrajectorySample();
+        assertEquals(trajectory.getStates().size(), binary.getStateCount());
+        for (int i = 0; i < binary.getStateCount(); i++) {
+            PathPlannerState state = trajectory.getState(i);
+            binary.sample(state.timeSeconds, sample);
+            assertState(state, sample);
+        }
+    }
+
+    @Test
+    void mapRejectsOtherFiles(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("Bad" + BinaryTrajectory.EXTENSION);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = BinaryTrajectory.encode(trajectory);
+            buffer.putInt(0, 0);
+            while (buffer.hasRemaining()) channel.write(buffer);
+        }
+
+        assertThrows(IllegalArgumentException.class, () -> BinaryTrajectory.map(file));
+    }
+}
@@ -0,0 +1,93 @@
+package frc.robot.util.swerve;
+
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.math.kinematics.SwerveDriveKinematics;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/** Checks the primitive {@link SwerveKinematics} engine against WPILib's {@link SwerveDriveKinematics}. */
+class SwerveKinematicsTest {
+    private static final double EPSILON = 1e-9;
+
+    private static final Translation2d[] LOCATIONS = {
+            new Translation2d(0.33, 0.33),
+            new Translation2d(0.33, -0.33),
+            new Translation2d(-0.33, 0.33),
+            new Translation2d(-0.33, -0.33)
+    };
+
+    private final SwerveKinematics kinematics = new SwerveKinematics(LOCATIONS);
+    private final SwerveDriveKinematics reference = new SwerveDriveKinematics(LOCATIONS);
+
+    @Test
+    void toModuleStatesMatchesWPILib() {
+        kinematics.toModuleStates(1.5, -0.5, 2);
+        SwerveModuleState[] expected = reference.toSwerveModuleStates(new ChassisSpeeds(1.5, -0.5, 2));
+
+        for (int i = 0; i < LOCATIONS.length; i++) {
+            assertEquals(expected[i].speedMetersPerSecond, kinematics.getSpeed(i), EPSILON);
+            assertEquals(expected[i].angle.getRadians(), kinematics.getAngle(i), EPSILON);
+        }
+    }
+
+    @Test
+    void stoppingKeepsTheAngles() {
+        kinematics.toModuleStates(0, 1, 0);
+        kinematics.toModuleStates(0, 0, 0);
+
+        for (int i = 0; i < LOCATIONS.length; i++) {
+            assertEquals(0, kinematics.getSpeed(i), EPSILON);
+            assertEquals(Math.PI / 2, kinematics.getAngle(i), EPSILON);
+        }
+    }
+
+    @Test
+    void toChassisSpeedsInvertsToModuleStates() {
+        kinematics.toModuleStates(-1, 0.75, -3);
+        double[] speeds = new double[LOCATIONS.length];
+        double[] angles = new double[LOCATIONS.length];
+        for (int i = 0; i < LOCATIONS.length; i++) {
+            speeds[i] = kinematics.getSpeed(i);
+            angles[i] = kinematics.getAngle(i);
+        }
+
+        double[] chassis = new double[3];
+        kinematics.toChassisSpeeds(speeds, angles, chassis);
+        assertEquals(-1, chassis[0], EPSILON);
+        assertEquals(0.75, chassis[1], EPSILON);
+        assertEquals(-3, chassis[2], EPSILON);
+    }
+
+    @Test
+    void desaturateKeepsTheDirection() {
+        kinematics.toModuleStates(4, 3, 0);
+        kinematics.desaturate(2);
+
+        for (int i = 0; i < LOCATIONS.length; i++) {
+            assertEquals(2, kinematics.getSpeed(i), EPSILON);
+            assertEquals(Math.atan2(3, 4), kinematics.getAngle(i), EPSILON);
+        }
+    }
+
+    @Test
+    void optimizeReversesInsteadOfTurningMoreThan90Degrees() {
+        kinematics.setState(0, 1, Math.toRadians(170));
+        kinematics.optimize(0, 0);
+        assertEquals(-1, kinematics.getSpeed(0), EPSILON);
+        assertEquals(Math.toRadians(-10), kinematics.getAngle(0), EPSILON);
+
+        kinematics.setState(1, 1, Math.toRadians(80));
+        kinematics.optimize(1, 0);
+        assertEquals(1, kinematics.getSpeed(1), EPSILON);
+        assertEquals(Math.toRadians(80), kinematics.getAngle(1), EPSILON);
+
+        // Measured the short way across +/- 180 degrees, this is only a 20 degree turn.
+        kinematics.setState(2, 1, Rotation2d.fromDegrees(170).getRadians());
+        kinematics.optimize(2, Math.toRadians(-170));
+        assertEquals(1, kinematics.getSpeed(2), EPSILON);
+    }
+}
@@ -0,0 +1,172 @@
+package frc.robot.util.swerve;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.wpilibj.simulation.SimHooks;
+import frc.robot.util.sensor.SensorSnapshot;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import static frc.robot.Constants.Chassis.MODULE_CONFIG;
+import static frc.robot.Constants.Chassis.SIDE_LENGTH;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs {@link SwerveOdometry} against a chassis of {@link SimModuleIO} modules. The FPGA clock is paused,
+ * so every pose is recorded at a known timestamp.
+ */
+class SwerveOdometryTest {
+    private static final double EPSILON = 1e-6;
+    private static final double PERIOD = 0.02;
+
+    private static SwerveChassis chassis;
+
+    @BeforeAll
+    static void setup() {
+        assertTrue(HAL.initialize(500, 0));
+        SimHooks.pauseTiming();
+
+        // The modules share the SensorSnapshot singleton, so only one chassis is created for every test.
+        chassis = new SwerveChassis(
+                new SwerveModule("FL", new SimModuleIO(MODULE_CONFIG, Rotation2d.fromDegrees(181.45)),
+                        MODULE_CONFIG, Rotation2d.fromDegrees(181.45), 1),
+                new SwerveModule("FR", new SimModuleIO(MODULE_CONFIG, Rotation2d.fromDegrees(-226.32)),
+                        MODULE_CONFIG, Rotation2d.fromDegrees(-226.32), 1),
+                new SwerveModule("BL", new SimModuleIO(MODULE_CONFIG, Rotation2d.fromDegrees(12.71)),
+                        MODULE_CONFIG, Rotation2d.fromDegrees(12.71), 1),
+                new SwerveModule("BR", new SimModuleIO(MODULE_CONFIG, new Rotation2d()),
+                        MODULE_CONFIG, new Rotation2d(), 1),
+                SIDE_LENGTH
+        );
+    }
+
+    @AfterAll
+    static void teardown() {
+        SimHooks.resumeTiming();
+    }
+
+    private static SwerveOdometry newOdometry(Pose2d pose) {
+        return new SwerveOdometry(chassis, timestamp -> 0, chassis::getSwerveModulePositions, pose);
+    }
+
+    /** Records a pose one <code>dt</code> after the last one, and returns its timestamp. */
+    private static double record(SwerveOdometry odometry, double dt, double x, double y, double degrees) {
+        SimHooks.stepTiming(dt);
+        odometry.resetOdometry(new Pose2d(x, y, Rotation2d.fromDegrees(degrees)));
+        return odometry.getLastTimestamp();
+    }
+
+    private static void assertPose(TimestampedPose pose, double x, double y, double degrees) {
+        assertEquals(x, pose.x, EPSILON);
+        assertEquals(y, pose.y, EPSILON);
+        assertEquals(Math.toRadians(degrees), pose.theta, EPSILON);
+    }
+
+    @Test
+    void resetReadsBackPose() {
+        SwerveOdometry odometry = newOdometry(new Pose2d());
+        odometry.resetOdometry(new Pose2d(3.2, -1.5, Rotation2d.fromDegrees(40)));
+
+        Pose2d pose = odometry.getPose();
+        assertEquals(3.2, pose.getX(), EPSILON);
+        assertEquals(-1.5, pose.getY(), EPSILON);
+        assertEquals(Math.toRadians(40), pose.getRotation().getRadians(), EPSILON);
+
+        // Nothing has moved, so the next update must not jump away from the reset pose.
+        SimHooks.stepTiming(PERIOD);
+        odometry.update();
+        assertEquals(3.2, odometry.getX(), EPSILON);
+        assertEquals(-1.5, odometry.getY(), EPSILON);
+    }
+
+    @Test
+    void drivingForwardIncreasesX() {
+        SwerveOdometry odometry = newOdometry(new Pose2d());
+        SensorSnapshot sensors = SensorSnapshot.getInstance();
+
+        double lastX = odometry.getX();
+        for (int i = 0; i < 50; i++) {
+            sensors.latch();
+            chassis.drive(1, 0, 0, PERIOD);
+            chassis.flush();
+            chassis.updateSimulation(PERIOD);
+            SimHooks.stepTiming(PERIOD);
+            odometry.update();
+
+            assertTrue(odometry.getX() >= lastX - EPSILON, "x decreased while driving forward");
+            lastX = odometry.getX();
+        }
+
+        sensors.latch();
+        chassis.drive(0, 0, 0, PERIOD);
+        chassis.flush();
+
+        assertTrue(odometry.getX() > 0.5, "x only reached " + odometry.getX());
+        assertEquals(0, odometry.getY(), 0.05);
+    }
+
+    @Test
+    void getPoseAtInterpolatesBetweenSamples() {
+        SwerveOdometry odometry = newOdometry(new Pose2d());
+        double first = odometry.getLastTimestamp();
+        double second = record(odometry, 0.1, 1, 2, 90);
+        double third = record(odometry, 0.1, 1, 2, -170);
+        record(odometry, 0.1, 1, 2, 170);
+        TimestampedPose pose = new TimestampedPose();
+
+        assertTrue(odometry.getPoseAt(first + 0.025, pose));
+        assertPose(pose, 0.25, 0.5, 22.5);
+        assertEquals(first + 0.025, pose.timestamp, EPSILON);
+
+        assertTrue(odometry.getPoseAt(second, pose));
+        assertPose(pose, 1, 2, 90);
+
+        // The heading takes the short way across +/- 180 degrees.
+        assertTrue(odometry.getPoseAt(third + 0.05, pose));
+        assertEquals(Math.PI, Math.abs(pose.theta), EPSILON);
+    }
+
+    @Test
+    void getPoseAtClampsOutsideHistory() {
+        SwerveOdometry odometry = newOdometry(new Pose2d(1, 0, new Rotation2d()));
+        double first = odometry.getLastTimestamp();
+        double second = record(odometry, 0.1, 2, 0, 0);
+        TimestampedPose pose = new TimestampedPose();
+
+        assertFalse(odometry.getPoseAt(second + 1, pose));
+        assertPose(pose, 2, 0, 0);
+        assertFalse(odometry.getPoseAt(first - 1, pose));
+        assertPose(pose, 1, 0, 0);
+
+        // Both earlier poses are now older than the history, so the oldest pose left is the newest one.
+        double third = record(odometry, SwerveOdometry.HISTORY_SECONDS + 0.5, 3, 0, 0);
+        assertFalse(odometry.getPoseAt(second, pose));
+        assertPose(pose, 3, 0, 0);
+        assertEquals(third, pose.timestamp, EPSILON);
+    }
+
+    @Test
+    void getPoseAtWrapsAroundTheRing() {
+        SwerveOdometry odometry = newOdometry(new Pose2d());
+        // More poses than the ring holds, each 1 ms apart so they are all inside the history time.
+        int count = 1500;
+        double[] timestamps = new double[count + 1];
+        timestamps[0] = odometry.getLastTimestamp();
+        for (int i = 1; i <= count; i++) {
+            timestamps[i] = record(odometry, 0.001, i, -i, 0);
+        }
+        TimestampedPose pose = new TimestampedPose();
+
+        assertTrue(odometry.getPoseAt((timestamps[1400] + timestamps[1401]) / 2, pose));
+        assertPose(pose, 1400.5, -1400.5, 0);
+
+        // Only the newest half of the ring is searched, so older poses clamp to the oldest one searched.
+        assertFalse(odometry.getPoseAt(timestamps[100], pose));
+        assertEquals(timestamps[count - 511], pose.timestamp, EPSILON);
+        assertPose(pose, count - 511, -(count - 511), 0);
+    }
+}